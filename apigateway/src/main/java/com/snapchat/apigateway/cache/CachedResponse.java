@@ -0,0 +1,23 @@
+package com.snapchat.apigateway.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * Réponse amont capturée : servie telle quelle aux requêtes coalescées et, si elle est cacheable,
+ * conservée jusqu'à freshUntil puis revalidée par ETag.
+ */
+record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, long storedAt, long freshUntil) {
+
+    boolean isFresh(long now) {
+        return now < freshUntil;
+    }
+
+    String etag() {
+        return headers.getETag();
+    }
+
+    CachedResponse refreshed(long now, long ttlMillis) {
+        return new CachedResponse(status, headers, body, now, now + ttlMillis);
+    }
+}
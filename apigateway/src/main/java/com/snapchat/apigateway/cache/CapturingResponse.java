@@ -0,0 +1,79 @@
+package com.snapchat.apigateway.cache;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Réponse qui garde statut, en-têtes et corps en mémoire au lieu de les écrire au client.
+ * Le filtre de cache écrit ensuite la même réponse à toutes les requêtes en attente.
+ */
+class CapturingResponse extends ServerHttpResponseDecorator {
+
+    private final HttpHeaders headers = new HttpHeaders();
+    private HttpStatusCode status;
+    private byte[] body = new byte[0];
+
+    CapturingResponse(ServerHttpResponse delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public boolean setStatusCode(HttpStatusCode status) {
+        this.status = status;
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public boolean setRawStatusCode(Integer value) {
+        this.status = value == null ? null : HttpStatusCode.valueOf(value);
+        return true;
+    }
+
+    @Override
+    public HttpStatusCode getStatusCode() {
+        return status;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        return DataBufferUtils.join(Flux.from(body))
+                .doOnNext(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    this.body = bytes;
+                })
+                .then();
+    }
+
+    @Override
+    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        return writeWith(Flux.from(body).concatMap(Flux::from));
+    }
+
+    @Override
+    public Mono<Void> setComplete() {
+        return Mono.empty();
+    }
+
+    HttpStatusCode capturedStatus() {
+        return status;
+    }
+
+    byte[] capturedBody() {
+        return body;
+    }
+}
@@ -0,0 +1,329 @@
+package com.snapchat.apigateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.snapchat.identity.IdentityHeader;
+import com.snapchat.apigateway.security.JwtAuthenticationGlobalFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache de réponses GET pour les routes chaudes, avec coalescence des requêtes identiques :
+ * N requêtes simultanées sur la même clé ne font qu'un seul appel amont, dont la réponse
+ * est servie à toutes.
+ * <p>
+ * La clé combine chemin, query et portée : {@code user} (une entrée par utilisateur) ou
+ * {@code shared} (une entrée pour tous, réservée aux lectures publiques). En portée partagée,
+ * la requête part vers l'amont sans Authorization ni identité : la réponse mise en commun est
+ * celle d'un appelant anonyme.
+ * Une réponse no-store, private, avec Set-Cookie ou Vary n'est ni mise en cache ni servie aux
+ * requêtes coalescées. Sinon max-age et s-maxage sont respectés ; sans directive,
+ * la durée par défaut de la route s'applique. Une entrée périmée qui porte un ETag est revalidée
+ * par If-None-Match plutôt que re-téléchargée.
+ */
+@Component
+public class CoalescingCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<CoalescingCacheGatewayFilterFactory.Config> {
+
+    public static final String CACHE_HEADER = "X-Cache";
+
+    // En-têtes propres à la connexion amont, jamais rejoués
+    private static final Set<String> HOP_BY_HOP = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "content-length", "upgrade", "proxy-connection");
+
+    // En-têtes CORS de la requête : traités par la gateway et retirés vers l'amont, un Vary sur eux est sans effet
+    private static final Set<String> CORS_REQUEST_HEADERS = Set.of(
+            "origin", "access-control-request-method", "access-control-request-headers");
+
+    private final Cache<String, CachedResponse> cache;
+    private final ConcurrentHashMap<String, Mono<Optional<CachedResponse>>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final long maxEntryBytes;
+
+    public CoalescingCacheGatewayFilterFactory(@Value("${gateway.cache.max-size:64MB}") DataSize maxSize,
+                                               @Value("${gateway.cache.max-entry-size:512KB}") DataSize maxEntrySize,
+                                               @Value("${gateway.cache.stale-retention:5m}") Duration staleRetention,
+                                               MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+        this.maxEntryBytes = maxEntrySize.toBytes();
+        long retentionMs = staleRetention.toMillis();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, CachedResponse response) -> key.length() + response.body().length + 256)
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                        // Une entrée avec ETag reste disponible après péremption pour être revalidée
+                        long keepMs = response.freshUntil() - System.currentTimeMillis()
+                                + (response.etag() != null ? retentionMs : 0);
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(keepMs, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse response, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, response, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse response, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway-response-cache");
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("defaultTtl", "scope");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET || clientBypassesCache(request)) {
+                return chain.filter(exchange);
+            }
+            String routeId = routeId(exchange);
+            String key = key(exchange, config);
+            CachedResponse cached = cache.getIfPresent(key);
+            if (cached != null && cached.isFresh(System.currentTimeMillis())) {
+                count(routeId, "hit");
+                return write(exchange, cached, "HIT");
+            }
+
+            Sinks.One<Optional<CachedResponse>> sink = Sinks.one();
+            Mono<Optional<CachedResponse>> flight = sink.asMono();
+            Mono<Optional<CachedResponse>> pending = inFlight.putIfAbsent(key, flight);
+            if (pending != null) {
+                // Même requête déjà en vol : on attend sa réponse, ou on appelle l'amont si elle n'est pas partageable
+                count(routeId, "coalesced");
+                return pending.flatMap(shared -> shared
+                        .map(response -> write(exchange, response, "COALESCED"))
+                        .orElseGet(() -> chain.filter(exchange)));
+            }
+
+            CapturingResponse capture = new CapturingResponse(exchange.getResponse());
+            ServerWebExchange upstream = exchange.mutate()
+                    .request(conditionalRequest(request, cached, config))
+                    .response(capture)
+                    .build();
+            return chain.filter(upstream)
+                    .then(Mono.fromSupplier(() -> resolve(config, cached, capture, System.currentTimeMillis())))
+                    .doOnNext(resolution -> {
+                        if (resolution.cacheable()) {
+                            cache.put(key, resolution.response());
+                        }
+                        count(routeId, resolution.label().toLowerCase(Locale.ROOT));
+                        sink.tryEmitValue(resolution.shareable() ? Optional.of(resolution.response()) : Optional.empty());
+                    })
+                    .doFinally(signal -> {
+                        inFlight.remove(key, flight);
+                        // Erreur ou annulation du client meneur : les requêtes en attente repartent vers l'amont
+                        sink.tryEmitValue(Optional.empty());
+                    })
+                    .flatMap(resolution -> write(exchange, resolution.response(), resolution.label()));
+        };
+    }
+
+    Resolution resolve(Config config, CachedResponse stale, CapturingResponse capture, long now) {
+        HttpStatusCode status = capture.capturedStatus() != null ? capture.capturedStatus() : HttpStatus.OK;
+        HttpHeaders headers = capture.getHeaders();
+        if (status.value() == HttpStatus.NOT_MODIFIED.value() && stale != null) {
+            HttpHeaders directives = headers.getCacheControl() != null ? headers : stale.headers();
+            if (!isShareable(directives)) {
+                return new Resolution(stale, false, false, "MISS");
+            }
+            long ttl = ttlMillis(config, directives);
+            return new Resolution(stale.refreshed(now, Math.max(ttl, 0)), true, true, "REVALIDATED");
+        }
+
+        byte[] body = capture.capturedBody();
+        CachedResponse response = new CachedResponse(status, HttpHeaders.readOnlyHttpHeaders(headers), body, now, now);
+        if (status.value() != HttpStatus.OK.value() || !isShareable(headers)) {
+            return new Resolution(response, false, false, "MISS");
+        }
+        long ttl = ttlMillis(config, headers);
+        boolean cacheable = body.length <= maxEntryBytes && (ttl > 0 || response.etag() != null);
+        CachedResponse stored = new CachedResponse(status, response.headers(), body, now, now + Math.max(ttl, 0));
+        return new Resolution(stored, cacheable, true, "MISS");
+    }
+
+    /**
+     * Une réponse propre à l'appelant ne doit jamais être rejouée à un autre : no-store, private,
+     * Set-Cookie, ou Vary sur un en-tête que la clé ne distingue pas (tout sauf les en-têtes CORS).
+     */
+    static boolean isShareable(HttpHeaders headers) {
+        String cacheControl = cacheControl(headers);
+        if (cacheControl.contains("no-store") || cacheControl.contains("private")
+                || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        for (String vary : headers.getVary()) {
+            if (!CORS_REQUEST_HEADERS.contains(vary.trim().toLowerCase(Locale.ROOT))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Durée de fraîcheur : s-maxage (portée partagée) puis max-age, sinon la valeur par défaut de la route.
+     * no-cache impose une revalidation à chaque requête.
+     */
+    private static long ttlMillis(Config config, HttpHeaders headers) {
+        String cacheControl = cacheControl(headers);
+        if (cacheControl.contains("no-cache")) {
+            return 0;
+        }
+        Long seconds = config.isShared() ? directive(cacheControl, "s-maxage") : null;
+        if (seconds == null) {
+            seconds = directive(cacheControl, "max-age");
+        }
+        return seconds != null ? TimeUnit.SECONDS.toMillis(seconds) : config.getDefaultTtl().toMillis();
+    }
+
+    private static Long directive(String cacheControl, String name) {
+        for (String part : cacheControl.split(",")) {
+            String token = part.trim();
+            if (token.startsWith(name + "=")) {
+                try {
+                    return Long.parseLong(token.substring(name.length() + 1).replace("\"", ""));
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String cacheControl(HttpHeaders headers) {
+        String value = headers.getCacheControl();
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Les conditions du client sont traitées par la gateway ; vers l'amont on n'envoie que l'ETag de l'entrée périmée.
+     * En portée partagée, l'appel amont est anonyme pour que la réponse ne dépende pas du meneur.
+     */
+    private static ServerHttpRequest conditionalRequest(ServerHttpRequest request, CachedResponse stale, Config config) {
+        return request.mutate().headers(headers -> {
+            headers.remove(HttpHeaders.IF_NONE_MATCH);
+            headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+            CORS_REQUEST_HEADERS.forEach(headers::remove);
+            if (config.isShared()) {
+                headers.remove(HttpHeaders.AUTHORIZATION);
+                headers.remove(IdentityHeader.NAME);
+            }
+            if (stale != null && stale.etag() != null) {
+                headers.setIfNoneMatch(stale.etag());
+            }
+        }).build();
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, CachedResponse cached, String label) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        cached.headers().forEach((name, values) -> {
+            if (!HOP_BY_HOP.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.put(name, values);
+            }
+        });
+        headers.set(CACHE_HEADER, label);
+        if ("HIT".equals(label)) {
+            headers.set(HttpHeaders.AGE, Long.toString((System.currentTimeMillis() - cached.storedAt()) / 1000));
+        }
+
+        String etag = cached.etag();
+        if (etag != null && cached.status().value() == HttpStatus.OK.value()
+                && exchange.getRequest().getHeaders().getIfNoneMatch().contains(etag)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_TYPE);
+            return response.setComplete();
+        }
+        response.setStatusCode(cached.status());
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private static boolean clientBypassesCache(ServerHttpRequest request) {
+        String cacheControl = request.getHeaders().getCacheControl();
+        return cacheControl != null && (cacheControl.contains("no-cache") || cacheControl.contains("no-store"));
+    }
+
+    private static String key(ServerWebExchange exchange, Config config) {
+        String scope = "*";
+        if (!config.isShared()) {
+            IdentityHeader.Identity identity = exchange.getAttribute(JwtAuthenticationGlobalFilter.IDENTITY_ATTRIBUTE);
+            scope = identity != null && identity.userId() != null ? identity.userId() : "anonymous";
+        }
+        return scope + " " + exchange.getRequest().getURI().getRawPath()
+                + "?" + Optional.ofNullable(exchange.getRequest().getURI().getRawQuery()).orElse("");
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "unknown";
+    }
+
+    private void count(String routeId, String result) {
+        meterRegistry.counter("gateway.cache.requests", "route", routeId, "result", result).increment();
+    }
+
+    record Resolution(CachedResponse response, boolean cacheable, boolean shareable, String label) {
+    }
+
+    public static class Config {
+
+        private Duration defaultTtl = Duration.ofSeconds(5);
+        private String scope = "user";
+
+        public Duration getDefaultTtl() {
+            return defaultTtl;
+        }
+
+        public void setDefaultTtl(Duration defaultTtl) {
+            this.defaultTtl = defaultTtl;
+        }
+
+        public String getScope() {
+            return scope;
+        }
+
+        public void setScope(String scope) {
+            this.scope = scope;
+        }
+
+        boolean isShared() {
+            return "shared".equalsIgnoreCase(scope);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.snapchat.apigateway.config;
+
+import com.snapchat.identity.IdentityHeader;
+import com.snapchat.apigateway.security.JwtAuthenticationGlobalFilter;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+@Configuration
+public class RateLimitConfig {
+
+    /**
+     * Clé par utilisateur authentifié, sinon par IP. Résolveur par défaut des routes limitées.
+     */
+    @Bean
+    @Primary
+    public KeyResolver userKeyResolver() {
+        return exchange -> {
+            IdentityHeader.Identity identity = exchange.getAttribute(JwtAuthenticationGlobalFilter.IDENTITY_ATTRIBUTE);
+            if (identity != null && identity.userId() != null) {
+                return Mono.just("user:" + identity.userId());
+            }
+            return Mono.just("ip:" + clientIp(exchange.getRequest().getRemoteAddress()));
+        };
+    }
+
+    /**
+     * Clé par IP, pour les routes anonymes comme le login.
+     */
+    @Bean
+    public KeyResolver ipKeyResolver() {
+        return exchange -> Mono.just("ip:" + clientIp(exchange.getRequest().getRemoteAddress()));
+    }
+
+    private static String clientIp(InetSocketAddress address) {
+        if (address == null) {
+            return "unknown";
+        }
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+}
@@ -0,0 +1,15 @@
+package com.snapchat.apigateway.config;
+
+import com.snapchat.identity.IdentityHeader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SecurityConfig {
+
+    @Bean
+    public IdentityHeader identityHeader(@Value("${app.identity.secret}") String secret) {
+        return new IdentityHeader(secret);
+    }
+}
@@ -0,0 +1,25 @@
+package com.snapchat.apigateway.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Réponse renvoyée quand le circuit d'un service est ouvert ou que l'appel a expiré.
+ */
+@RestController
+@RequestMapping("/fallback")
+public class FallbackController {
+
+    @RequestMapping("/{service}")
+    public ResponseEntity<FallbackResponse> fallback(@PathVariable String service) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "10")
+                .body(new FallbackResponse(service + " is temporarily unavailable", null));
+    }
+
+    public record FallbackResponse(String message, Object data) {
+    }
+}
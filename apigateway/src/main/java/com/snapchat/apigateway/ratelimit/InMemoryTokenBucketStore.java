@@ -0,0 +1,74 @@
+package com.snapchat.apigateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seaux de jetons en mémoire, sans verrou : chaque seau est un seul AtomicLong mis à jour par CAS.
+ * Algorithme GCRA : on stocke l'instant théorique auquel le seau sera de nouveau plein ;
+ * c'est équivalent à un token bucket sans avoir à stocker séparément jetons et horodatage.
+ * Les seaux inactifs sont évincés pour borner la mémoire (une entrée par IP ou par utilisateur).
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.rate-limit.store", havingValue = "local", matchIfMissing = true)
+public class InMemoryTokenBucketStore implements TokenBucketStore {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Cache<String, AtomicLong> buckets;
+
+    public InMemoryTokenBucketStore(@Value("${gateway.rate-limit.max-buckets:100000}") long maxBuckets,
+                                    @Value("${gateway.rate-limit.idle-expiry:10m}") Duration idleExpiry,
+                                    MeterRegistry meterRegistry) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(idleExpiry)
+                .build();
+        Gauge.builder("gateway.ratelimit.buckets", buckets, Cache::estimatedSize)
+                .description("Nombre de seaux de jetons actifs")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<BucketDecision> tryConsume(String key, BucketSpec spec) {
+        return Mono.fromSupplier(() -> consume(key, spec, System.nanoTime()));
+    }
+
+    BucketDecision consume(String key, BucketSpec spec, long now) {
+        if (spec.replenishRate() <= 0 || spec.requestedTokens() > spec.burstCapacity()) {
+            return new BucketDecision(false, 0, -1);
+        }
+        // Intervalle entre deux jetons et profondeur de la réserve, en nanosecondes.
+        // Au-delà d'un milliard de jetons par seconde l'intervalle tomberait à 0 : plafonné à 1 ns
+        long interval = Math.max(1, NANOS_PER_SECOND / spec.replenishRate());
+        long capacity = interval * spec.burstCapacity();
+        long cost = interval * spec.requestedTokens();
+
+        // Un seau neuf est plein : il redevient plein « maintenant »
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(now));
+        while (true) {
+            long fullAt = bucket.get();
+            long start = fullAt - now < 0 ? now : fullAt;
+            long next = start + cost;
+            long debt = next - now;
+            if (debt > capacity) {
+                long remaining = (capacity - (start - now)) / interval;
+                return new BucketDecision(false, Math.max(remaining, 0),
+                        TimeUnit.NANOSECONDS.toMillis(debt - capacity));
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return new BucketDecision(true, (capacity - debt) / interval, 0);
+            }
+        }
+    }
+}
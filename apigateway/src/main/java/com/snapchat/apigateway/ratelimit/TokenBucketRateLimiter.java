@@ -0,0 +1,116 @@
+package com.snapchat.apigateway.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * RateLimiter du filtre RequestRateLimiter, à seaux de jetons.
+ * Les limites se règlent par route avec les arguments {@code token-bucket-rate-limiter.*} ;
+ * une route sans réglage prend les valeurs par défaut de {@code gateway.rate-limit.*}.
+ */
+@Component
+public class TokenBucketRateLimiter extends AbstractRateLimiter<TokenBucketRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "token-bucket-rate-limiter";
+
+    private final TokenBucketStore store;
+    private final MeterRegistry meterRegistry;
+    private final Config defaultConfig;
+
+    public TokenBucketRateLimiter(TokenBucketStore store,
+                                  MeterRegistry meterRegistry,
+                                  ConfigurationService configurationService,
+                                  @Value("${gateway.rate-limit.default.replenish-rate:20}") int replenishRate,
+                                  @Value("${gateway.rate-limit.default.burst-capacity:40}") int burstCapacity) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.store = store;
+        this.meterRegistry = meterRegistry;
+        this.defaultConfig = new Config()
+                .setReplenishRate(replenishRate)
+                .setBurstCapacity(burstCapacity);
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        TokenBucketStore.BucketSpec spec = new TokenBucketStore.BucketSpec(
+                config.getReplenishRate(), config.getBurstCapacity(), config.getRequestedTokens());
+
+        // Un seau par route et par clé : les limites d'une route n'entament pas celles d'une autre
+        return store.tryConsume(routeId + ":" + id, spec).map(decision -> {
+            DistributionSummary.builder("gateway.ratelimit.tokens.remaining")
+                    .description("Jetons restants dans le seau après la requête")
+                    .tag("route", routeId)
+                    .register(meterRegistry)
+                    .record(decision.tokensRemaining());
+            if (!decision.allowed()) {
+                Counter.builder("gateway.ratelimit.rejected")
+                        .description("Requêtes refusées par le rate limiter")
+                        .tag("route", routeId)
+                        .tag("scope", scopeOf(id))
+                        .register(meterRegistry)
+                        .increment();
+            }
+            return new Response(decision.allowed(), headers(config, decision));
+        });
+    }
+
+    private static Map<String, String> headers(Config config, TokenBucketStore.BucketDecision decision) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("X-RateLimit-Remaining", Long.toString(decision.tokensRemaining()));
+        headers.put("X-RateLimit-Replenish-Rate", Integer.toString(config.getReplenishRate()));
+        headers.put("X-RateLimit-Burst-Capacity", Integer.toString(config.getBurstCapacity()));
+        if (!decision.allowed() && decision.retryAfterMillis() >= 0) {
+            headers.put("Retry-After", Long.toString(Math.max(1, (decision.retryAfterMillis() + 999) / 1000)));
+        }
+        return headers;
+    }
+
+    private static String scopeOf(String id) {
+        int colon = id.indexOf(':');
+        return colon > 0 ? id.substring(0, colon) : "unknown";
+    }
+
+    public static class Config {
+
+        private int replenishRate;
+        private int burstCapacity;
+        private int requestedTokens = 1;
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public Config setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public Config setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+
+        public int getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public Config setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.snapchat.apigateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Stockage des seaux de jetons. L'implémentation locale garde l'état en mémoire du process ;
+ * une implémentation partagée (Redis...) peut la remplacer avec {@code gateway.rate-limit.store}.
+ */
+public interface TokenBucketStore {
+
+    Mono<BucketDecision> tryConsume(String key, BucketSpec spec);
+
+    /**
+     * replenishRate jetons par seconde, au plus burstCapacity en réserve, requestedTokens par requête.
+     */
+    record BucketSpec(int replenishRate, int burstCapacity, int requestedTokens) {
+    }
+
+    record BucketDecision(boolean allowed, long tokensRemaining, long retryAfterMillis) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.snapchat.apigateway.security;
+
+import com.snapchat.identity.IdentityHeader;
+import io.jsonwebtoken.JwtException;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Authentification à l'entrée : le JWT est vérifié une seule fois ici, puis remplacé
+ * pour les services par l'en-tête signé {@link IdentityHeader#NAME}.
+ * Un en-tête d'identité envoyé par le client est toujours supprimé. Sans token la requête
+ * passe sans identité (login, register...) ; un token invalide est refusé en 401.
+ */
+@Component
+public class JwtAuthenticationGlobalFilter implements GlobalFilter, Ordered {
+
+    /** Identité vérifiée, exposée aux filtres suivants (clé de rate limiting, cache). */
+    public static final String IDENTITY_ATTRIBUTE = JwtAuthenticationGlobalFilter.class.getName() + ".identity";
+
+    private static final String BEARER = "Bearer ";
+
+    private final JwtTokenVerifier tokenVerifier;
+
+    public JwtAuthenticationGlobalFilter(JwtTokenVerifier tokenVerifier) {
+        this.tokenVerifier = tokenVerifier;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest.Builder request = exchange.getRequest().mutate()
+                .headers(headers -> headers.remove(IdentityHeader.NAME));
+
+        String authorization = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.startsWith(BEARER)) {
+            IdentityHeader.Identity identity;
+            try {
+                identity = tokenVerifier.verify(authorization.substring(BEARER.length()));
+            } catch (JwtException | IllegalArgumentException e) {
+                exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+                return exchange.getResponse().setComplete();
+            }
+            request.header(IdentityHeader.NAME, tokenVerifier.signedHeader(identity));
+            exchange.getAttributes().put(IDENTITY_ATTRIBUTE, identity);
+        }
+        return chain.filter(exchange.mutate().request(request.build()).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+}
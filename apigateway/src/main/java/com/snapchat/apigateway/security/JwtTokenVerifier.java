@@ -0,0 +1,81 @@
+package com.snapchat.apigateway.security;
+
+import com.snapchat.identity.IdentityHeader;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vérifie les JWT émis par userservice (même secret HMAC) et mémorise, par token,
+ * l'en-tête d'identité signé à transmettre. Un token déjà vu coûte une lecture de cache.
+ */
+@Component
+public class JwtTokenVerifier {
+
+    private final JwtParser parser;
+    private final IdentityHeader identityHeader;
+    private final Cache<String, IdentityHeader.Identity> verified;
+
+    public JwtTokenVerifier(@Value("${app.jwt.secret}") String jwtSecret,
+                            @Value("${app.jwt.verified-cache-size:50000}") long cacheSize,
+                            IdentityHeader identityHeader) {
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)))
+                .build();
+        this.identityHeader = identityHeader;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new Expiry<String, IdentityHeader.Identity>() {
+                    @Override
+                    public long expireAfterCreate(String token, IdentityHeader.Identity identity, long currentTime) {
+                        long remainingMs = identity.expiresAt() * 1000 - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, IdentityHeader.Identity identity, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, IdentityHeader.Identity identity, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Identité du porteur du token. Lève une JwtException si le token est invalide ou expiré.
+     */
+    public IdentityHeader.Identity verify(String token) {
+        IdentityHeader.Identity cached = verified.getIfPresent(token);
+        if (cached != null && cached.expiresAt() * 1000 > System.currentTimeMillis()) {
+            return cached;
+        }
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Object userId = claims.get("uid");
+        // iat transmis tel quel : userservice le compare aux révocations, 0 (inconnu) force une relecture
+        IdentityHeader.Identity identity = new IdentityHeader.Identity(
+                userId == null ? null : userId.toString(),
+                claims.getSubject(),
+                claims.get("roles", String.class),
+                claims.getIssuedAt() == null ? 0 : claims.getIssuedAt().getTime() / 1000,
+                claims.getExpiration().getTime() / 1000);
+        verified.put(token, identity);
+        return identity;
+    }
+
+    public String signedHeader(IdentityHeader.Identity identity) {
+        return identityHeader.sign(identity);
+    }
+}
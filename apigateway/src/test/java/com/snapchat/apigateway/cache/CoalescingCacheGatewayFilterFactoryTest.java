@@ -0,0 +1,146 @@
+package com.snapchat.apigateway.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoalescingCacheGatewayFilterFactoryTest {
+
+    private static final long NOW = 1_000_000L;
+
+    private final CoalescingCacheGatewayFilterFactory factory = new CoalescingCacheGatewayFilterFactory(
+            DataSize.ofMegabytes(1), DataSize.ofKilobytes(1), Duration.ofMinutes(5), new SimpleMeterRegistry());
+
+    @Test
+    void publicResponseIsSharedAndCachedForTheRouteTtl() {
+        CoalescingCacheGatewayFilterFactory.Resolution resolution = resolve(shared(), HttpStatus.OK, new HttpHeaders());
+
+        assertTrue(resolution.shareable());
+        assertTrue(resolution.cacheable());
+        assertEquals(NOW + 10_000, resolution.response().freshUntil());
+    }
+
+    @Test
+    void noStoreResponseIsNeitherCachedNorShared() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl(CacheControl.noStore());
+
+        CoalescingCacheGatewayFilterFactory.Resolution resolution = resolve(shared(), HttpStatus.OK, headers);
+
+        assertFalse(resolution.cacheable());
+        assertFalse(resolution.shareable());
+    }
+
+    @Test
+    void privateResponseIsNotSharedEvenInUserScope() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl(CacheControl.maxAge(Duration.ofSeconds(30)).cachePrivate());
+
+        assertFalse(resolve(shared(), HttpStatus.OK, headers).shareable());
+        assertFalse(resolve(new CoalescingCacheGatewayFilterFactory.Config(), HttpStatus.OK, headers).shareable());
+    }
+
+    @Test
+    void setCookieResponseIsNotShared() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.SET_COOKIE, "session=abc");
+
+        CoalescingCacheGatewayFilterFactory.Resolution resolution = resolve(shared(), HttpStatus.OK, headers);
+
+        assertFalse(resolution.cacheable());
+        assertFalse(resolution.shareable());
+    }
+
+    @Test
+    void varyOnAnyHeaderButCorsIsNotShared() {
+        HttpHeaders cors = new HttpHeaders();
+        cors.add(HttpHeaders.VARY, "Origin, Access-Control-Request-Method, Access-Control-Request-Headers");
+        HttpHeaders language = new HttpHeaders();
+        language.add(HttpHeaders.VARY, "Origin");
+        language.add(HttpHeaders.VARY, "Accept-Language");
+
+        assertTrue(resolve(shared(), HttpStatus.OK, cors).shareable());
+        assertFalse(resolve(shared(), HttpStatus.OK, language).shareable());
+    }
+
+    @Test
+    void errorResponseIsNotShared() {
+        assertFalse(resolve(shared(), HttpStatus.NOT_FOUND, new HttpHeaders()).shareable());
+    }
+
+    @Test
+    void oversizedResponseIsSharedButNotCached() {
+        CapturingResponse capture = capture(HttpStatus.OK, new HttpHeaders());
+        capture.writeWith(Mono.just(capture.bufferFactory().wrap(new byte[2048]))).block();
+
+        CoalescingCacheGatewayFilterFactory.Resolution resolution = factory.resolve(shared(), null, capture, NOW);
+
+        assertTrue(resolution.shareable());
+        assertFalse(resolution.cacheable());
+    }
+
+    @Test
+    void notModifiedWithNoStoreDropsTheStaleEntry() {
+        HttpHeaders staleHeaders = new HttpHeaders();
+        staleHeaders.setETag("\"v1\"");
+        CachedResponse stale = new CachedResponse(HttpStatus.OK, staleHeaders,
+                "story".getBytes(StandardCharsets.UTF_8), NOW - 20_000, NOW - 10_000);
+        HttpHeaders revalidation = new HttpHeaders();
+        revalidation.setCacheControl(CacheControl.noStore());
+
+        CoalescingCacheGatewayFilterFactory.Resolution resolution =
+                factory.resolve(shared(), stale, capture(HttpStatus.NOT_MODIFIED, revalidation), NOW);
+
+        assertFalse(resolution.cacheable());
+        assertFalse(resolution.shareable());
+        assertSame(stale, resolution.response());
+    }
+
+    @Test
+    void notModifiedRefreshesAPublicEntry() {
+        HttpHeaders staleHeaders = new HttpHeaders();
+        staleHeaders.setETag("\"v1\"");
+        CachedResponse stale = new CachedResponse(HttpStatus.OK, staleHeaders,
+                "story".getBytes(StandardCharsets.UTF_8), NOW - 20_000, NOW - 10_000);
+
+        CoalescingCacheGatewayFilterFactory.Resolution resolution =
+                factory.resolve(shared(), stale, capture(HttpStatus.NOT_MODIFIED, new HttpHeaders()), NOW);
+
+        assertTrue(resolution.cacheable());
+        assertTrue(resolution.shareable());
+        assertEquals("REVALIDATED", resolution.label());
+        assertEquals(NOW + 10_000, resolution.response().freshUntil());
+    }
+
+    private CoalescingCacheGatewayFilterFactory.Resolution resolve(CoalescingCacheGatewayFilterFactory.Config config,
+                                                                   HttpStatus status, HttpHeaders headers) {
+        return factory.resolve(config, null, capture(status, headers), NOW);
+    }
+
+    private static CapturingResponse capture(HttpStatus status, HttpHeaders headers) {
+        CapturingResponse capture = new CapturingResponse(new MockServerHttpResponse());
+        capture.setStatusCode(status);
+        capture.getHeaders().putAll(headers);
+        return capture;
+    }
+
+    private static CoalescingCacheGatewayFilterFactory.Config shared() {
+        CoalescingCacheGatewayFilterFactory.Config config = new CoalescingCacheGatewayFilterFactory.Config();
+        config.setDefaultTtl(Duration.ofSeconds(10));
+        config.setScope("shared");
+        return config;
+    }
+}
@@ -0,0 +1,124 @@
+package com.snapchat.apigateway.ratelimit;
+
+import com.snapchat.apigateway.ratelimit.TokenBucketStore.BucketDecision;
+import com.snapchat.apigateway.ratelimit.TokenBucketStore.BucketSpec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryTokenBucketStoreTest {
+
+    private static final long NOW = 1_000_000_000_000L;
+    // 10 jetons par seconde : un jeton toutes les 100 ms
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final BucketSpec SPEC = new BucketSpec(10, 5, 1);
+
+    private final InMemoryTokenBucketStore store =
+            new InMemoryTokenBucketStore(1000, Duration.ofMinutes(10), new SimpleMeterRegistry());
+
+    @Test
+    void burstCapacityIsGrantedExactlyThenRejected() {
+        for (int i = 0; i < 5; i++) {
+            BucketDecision decision = store.consume("ip", SPEC, NOW);
+            assertTrue(decision.allowed());
+            assertEquals(4 - i, decision.tokensRemaining());
+        }
+
+        BucketDecision rejected = store.consume("ip", SPEC, NOW);
+        assertFalse(rejected.allowed());
+        assertEquals(0, rejected.tokensRemaining());
+    }
+
+    @Test
+    void oneTokenIsRefilledAfterEachInterval() {
+        drain("ip", SPEC, NOW);
+
+        assertFalse(store.consume("ip", SPEC, NOW + INTERVAL - 1).allowed());
+        assertTrue(store.consume("ip", SPEC, NOW + INTERVAL).allowed());
+        assertFalse(store.consume("ip", SPEC, NOW + INTERVAL).allowed());
+
+        // Au repos le seau se remplit jusqu'à burstCapacity, pas au-delà
+        assertEquals(4, store.consume("ip", SPEC, NOW + 100 * INTERVAL).tokensRemaining());
+    }
+
+    @Test
+    void retryAfterIsTheTimeUntilTheNextToken() {
+        drain("ip", SPEC, NOW);
+
+        assertEquals(100, store.consume("ip", SPEC, NOW).retryAfterMillis());
+        assertEquals(60, store.consume("ip", SPEC, NOW + TimeUnit.MILLISECONDS.toNanos(40)).retryAfterMillis());
+        assertEquals(0, store.consume("ip", SPEC, NOW + INTERVAL).retryAfterMillis());
+    }
+
+    @Test
+    void requestLargerThanBurstIsRejectedWithoutTouchingTheBucket() {
+        BucketDecision rejected = store.consume("ip", new BucketSpec(10, 5, 6), NOW);
+
+        assertFalse(rejected.allowed());
+        assertEquals(-1, rejected.retryAfterMillis());
+        assertEquals(4, store.consume("ip", SPEC, NOW).tokensRemaining());
+    }
+
+    @Test
+    void rateAboveOneTokenPerNanosecondDoesNotDivideByZero() {
+        BucketSpec spec = new BucketSpec(Integer.MAX_VALUE, 3, 1);
+
+        assertEquals(3, drain("ip", spec, NOW));
+        BucketDecision rejected = store.consume("ip", spec, NOW);
+        assertFalse(rejected.allowed());
+        assertEquals(0, rejected.tokensRemaining());
+        assertTrue(store.consume("ip", spec, NOW + 1).allowed());
+    }
+
+    @Test
+    void concurrentCallersNeverGetMoreThanTheBurst() throws Exception {
+        BucketSpec spec = new BucketSpec(1, 50, 1);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger granted = new AtomicInteger();
+        try {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                calls.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 100; i++) {
+                        if (store.consume("ip", spec, NOW).allowed()) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> call : calls) {
+                call.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(50, granted.get());
+    }
+
+    private int drain(String key, BucketSpec spec, long now) {
+        int granted = 0;
+        while (store.consume(key, spec, now).allowed()) {
+            granted++;
+        }
+        return granted;
+    }
+}
@@ -1,12 +1,18 @@
 package com.snapchat.messageservice.controller;
 
 import com.snapchat.messageservice.common.ApiResponse;
+import com.snapchat.messageservice.dto.InboxPage;
 import com.snapchat.messageservice.dto.MessageRequest;
 import com.snapchat.messageservice.entity.Message;
 import com.snapchat.messageservice.service.MessageService;
+import com.snapchat.messageservice.service.push.MessagePushService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.security.Principal;
 import java.util.List;
 
 @RestController
@@ -16,9 +22,11 @@ import java.util.List;
 public class MessageController {
 
     private final MessageService messageService;
+    private final MessagePushService messagePushService;
 
-    public MessageController(MessageService messageService) {
+    public MessageController(MessageService messageService, MessagePushService messagePushService) {
         this.messageService = messageService;
+        this.messagePushService = messagePushService;
     }
 
     @PostMapping("/send")
@@ -37,15 +45,70 @@ public class MessageController {
         }
     }
 
+    @PostMapping("/send-batch")
+    public ResponseEntity<ApiResponse<List<Message>>> sendMessages(@RequestBody List<MessageRequest> requests) {
+        try {
+            List<Message> sent = messageService.sendMessages(requests);
+            return ResponseEntity.ok(new ApiResponse<>("Messages sent successfully", sent));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
     @GetMapping("/received/{userId}")
     public ResponseEntity<ApiResponse<List<Message>>> getMessagesForUser(@PathVariable Long userId) {
         List<Message> messages = messageService.getMessagesForUser(userId);
         return ResponseEntity.ok(new ApiResponse<>("Messages retrieved", messages));
     }
 
+    // Boîte de réception de l'utilisateur authentifié par la gateway ; l'id du chemin, s'il est donné, doit être le sien
+    @GetMapping({"/inbox", "/inbox/{userId}"})
+    public ResponseEntity<ApiResponse<InboxPage>> getInbox(
+            @PathVariable(required = false) Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            Principal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ApiResponse<>("Authentication is required to read the inbox", null));
+        }
+        if (userId != null && !isCurrentUser(userId, principal)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new ApiResponse<>("Not allowed to read this inbox", null));
+        }
+        try {
+            InboxPage page = messageService.getInbox(Long.valueOf(principal.getName()), cursor, size);
+            return ResponseEntity.ok(new ApiResponse<>("Messages retrieved", page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    // Flux temps réel de l'utilisateur authentifié par la gateway ; "cursor" ou l'en-tête
+    // Last-Event-ID permettent de reprendre après une coupure
+    @GetMapping(value = "/stream/{userId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamMessages(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            Principal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!isCurrentUser(userId, principal)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(messagePushService.subscribe(userId, cursor != null ? cursor : lastEventId));
+    }
+
     @GetMapping("/sent/{userId}")
     public ResponseEntity<ApiResponse<List<Message>>> getMessagesSentByUser(@PathVariable Long userId) {
         List<Message> messages = messageService.getMessagesSentByUser(userId);
         return ResponseEntity.ok(new ApiResponse<>("Messages sent", messages));
     }
+
+    // Le principal posé par GatewayIdentityFilter est l'id utilisateur
+    private static boolean isCurrentUser(Long userId, Principal principal) {
+        return userId.toString().equals(principal.getName());
+    }
 }
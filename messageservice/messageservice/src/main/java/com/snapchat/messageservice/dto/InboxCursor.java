@@ -0,0 +1,30 @@
+package com.snapchat.messageservice.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Curseur opaque de la boîte de réception : l'id Snowflake du dernier message lu, ordonné dans le temps.
+ * Les anciens curseurs "timestamp|id" restent acceptés, seul l'id est utilisé.
+ */
+public record InboxCursor(Long id) {
+
+    private static final char LEGACY_SEPARATOR = '|';
+
+    public static InboxCursor of(InboxMessage message) {
+        return new InboxCursor(message.id());
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static InboxCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return new InboxCursor(Long.valueOf(raw.substring(raw.lastIndexOf(LEGACY_SEPARATOR) + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.snapchat.messageservice.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.snapchat.messageservice.entity.Message;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection d'un message reçu : ne charge jamais la collection receiverIds.
+ */
+public record InboxMessage(
+        @JsonSerialize(using = ToStringSerializer.class) Long id,
+        Long senderId,
+        String content,
+        String mediaUrl,
+        String type,
+        LocalDateTime timestamp
+) {
+
+    public static InboxMessage from(Message message) {
+        return new InboxMessage(
+                message.getId(),
+                message.getSenderId(),
+                message.getContent(),
+                message.getMediaUrl(),
+                message.getType(),
+                message.getTimestamp()
+        );
+    }
+}
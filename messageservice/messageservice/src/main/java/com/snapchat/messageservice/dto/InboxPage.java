@@ -0,0 +1,12 @@
+package com.snapchat.messageservice.dto;
+
+import java.util.List;
+
+/**
+ * Une page de la boîte de réception. nextCursor vaut null quand il n'y a plus rien à lire.
+ */
+public record InboxPage(
+        List<InboxMessage> messages,
+        String nextCursor
+) {
+}
@@ -0,0 +1,86 @@
+package com.snapchat.messageservice.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ligne de boîte de réception écrite une fois par destinataire (mode fan-out).
+ * La clé (recipientId, messageId) est fournie par l'application : aucune génération d'id,
+ * les insertions peuvent donc partir en batch JDBC.
+ */
+@Entity
+// Pages lues sur la clé primaire (recipient_id, message_id), message_id étant ordonné dans le temps
+@Table(name = "inbox_entries")
+@IdClass(InboxEntryId.class)
+public class InboxEntry {
+    @Id
+    @Column(name = "recipient_id")
+    private Long recipientId;
+
+    @Id
+    @Column(name = "message_id")
+    private Long messageId;
+
+    private Long senderId;
+    private String content;
+    private String mediaUrl;
+    private String type;
+    private LocalDateTime timestamp;
+
+    public Long getRecipientId() {
+        return recipientId;
+    }
+
+    public void setRecipientId(Long recipientId) {
+        this.recipientId = recipientId;
+    }
+
+    public Long getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(Long messageId) {
+        this.messageId = messageId;
+    }
+
+    public Long getSenderId() {
+        return senderId;
+    }
+
+    public void setSenderId(Long senderId) {
+        this.senderId = senderId;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public String getMediaUrl() {
+        return mediaUrl;
+    }
+
+    public void setMediaUrl(String mediaUrl) {
+        this.mediaUrl = mediaUrl;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+}
@@ -0,0 +1,37 @@
+package com.snapchat.messageservice.entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class InboxEntryId implements Serializable {
+    private Long recipientId;
+    private Long messageId;
+
+    public InboxEntryId() {
+    }
+
+    public InboxEntryId(Long recipientId, Long messageId) {
+        this.recipientId = recipientId;
+        this.messageId = messageId;
+    }
+
+    public Long getRecipientId() {
+        return recipientId;
+    }
+
+    public Long getMessageId() {
+        return messageId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof InboxEntryId that)) return false;
+        return Objects.equals(recipientId, that.recipientId) && Objects.equals(messageId, that.messageId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(recipientId, messageId);
+    }
+}
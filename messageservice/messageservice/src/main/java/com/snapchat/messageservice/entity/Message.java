@@ -1,19 +1,48 @@
 package com.snapchat.messageservice.entity;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.snapchat.ids.SnowflakeId;
+import com.snapchat.messageservice.dto.InboxMessage;
 import jakarta.persistence.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_message_timestamp_id", columnList = "timestamp, id"),
+        @Index(name = "idx_message_sender_timestamp", columnList = "sender_id, timestamp, id")
+})
+@SqlResultSetMapping(name = Message.INBOX_MESSAGE_MAPPING, classes = @ConstructorResult(
+        targetClass = InboxMessage.class,
+        columns = {
+                @ColumnResult(name = "id", type = Long.class),
+                @ColumnResult(name = "sender_id", type = Long.class),
+                @ColumnResult(name = "content", type = String.class),
+                @ColumnResult(name = "media_url", type = String.class),
+                @ColumnResult(name = "type", type = String.class),
+                @ColumnResult(name = "timestamp", type = LocalDateTime.class)
+        }))
 public class Message {
+    // Lignes des requêtes natives de la boîte de réception -> InboxMessage
+    public static final String INBOX_MESSAGE_MAPPING = "InboxMessage";
+
+    // Id Snowflake ordonné dans le temps, attribué sans aller-retour en base : les inserts partent en batch JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
+    @JsonSerialize(using = ToStringSerializer.class) // 64 bits : dépasse Number.MAX_SAFE_INTEGER côté JavaScript
     private Long id;
 
     private Long senderId;
 
     @ElementCollection
+    @CollectionTable(
+            name = "message_receiver_ids",
+            joinColumns = @JoinColumn(name = "message_id"),
+            indexes = @Index(name = "idx_receiver_message", columnList = "receiver_ids, message_id")
+    )
+    @Column(name = "receiver_ids")
     private List<Long> receiverIds;
 
     private String content; // texte du message
@@ -0,0 +1,45 @@
+package com.snapchat.messageservice.repo;
+
+import com.snapchat.messageservice.dto.InboxMessage;
+import com.snapchat.messageservice.entity.InboxEntry;
+import com.snapchat.messageservice.entity.InboxEntryId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface InboxEntryRepository extends JpaRepository<InboxEntry, InboxEntryId> {
+
+    // Parcours de la clé primaire (recipient_id, message_id) : l'id Snowflake suit l'ordre d'envoi
+    @Query("""
+            select new com.snapchat.messageservice.dto.InboxMessage(e.messageId, e.senderId, e.content, e.mediaUrl, e.type, e.timestamp)
+            from InboxEntry e
+            where e.recipientId = :recipientId
+            order by e.messageId desc
+            """)
+    List<InboxMessage> findInboxFirstPage(@Param("recipientId") Long recipientId, Pageable pageable);
+
+    @Query("""
+            select new com.snapchat.messageservice.dto.InboxMessage(e.messageId, e.senderId, e.content, e.mediaUrl, e.type, e.timestamp)
+            from InboxEntry e
+            where e.recipientId = :recipientId
+              and e.messageId < :id
+            order by e.messageId desc
+            """)
+    List<InboxMessage> findInboxPageBefore(@Param("recipientId") Long recipientId,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
+
+    @Query("""
+            select new com.snapchat.messageservice.dto.InboxMessage(e.messageId, e.senderId, e.content, e.mediaUrl, e.type, e.timestamp)
+            from InboxEntry e
+            where e.recipientId = :recipientId
+              and e.messageId > :id
+            order by e.messageId asc
+            """)
+    List<InboxMessage> findInboxPageAfter(@Param("recipientId") Long recipientId,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
+}
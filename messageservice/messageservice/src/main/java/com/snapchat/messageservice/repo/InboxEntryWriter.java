@@ -0,0 +1,106 @@
+package com.snapchat.messageservice.repo;
+
+import com.snapchat.messageservice.entity.Message;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Écritures JDBC brutes sur inbox_entries : batch à l'envoi et backfill ensembliste.
+ */
+@Repository
+public class InboxEntryWriter {
+
+    private static final String INSERT_ENTRY = """
+            INSERT IGNORE INTO inbox_entries (recipient_id, message_id, sender_id, content, media_url, type, timestamp)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String BACKFILL_RANGE = """
+            INSERT IGNORE INTO inbox_entries (recipient_id, message_id, sender_id, content, media_url, type, timestamp)
+            SELECT r.receiver_ids, m.id, m.sender_id, m.content, m.media_url, m.type, m.timestamp
+            FROM message m
+            JOIN message_receiver_ids r ON r.message_id = m.id
+            WHERE m.id > ? AND m.id <= ?
+            """;
+
+    // Dernier id d'une tranche de n messages après :last, lue sur la clé primaire (WHERE id > ? ORDER BY id LIMIT ?)
+    private static final String CHUNK_END = """
+            SELECT MAX(id) FROM (SELECT id FROM message WHERE id > ? ORDER BY id LIMIT ?) chunk
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public InboxEntryWriter(JdbcTemplate jdbcTemplate,
+                            @Value("${messaging.inbox.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void fanOut(Message message, Collection<Long> recipients) {
+        List<Delivery> deliveries = new ArrayList<>(recipients.size());
+        for (Long recipientId : new LinkedHashSet<>(recipients)) {
+            if (recipientId != null) {
+                deliveries.add(new Delivery(recipientId, message));
+            }
+        }
+        insert(deliveries);
+    }
+
+    /**
+     * Une seule série de batchs pour tous les destinataires de tous les messages.
+     */
+    public void fanOutAll(Collection<Message> messages) {
+        List<Delivery> deliveries = new ArrayList<>();
+        for (Message message : messages) {
+            if (message.getReceiverIds() == null) {
+                continue;
+            }
+            for (Long recipientId : new LinkedHashSet<>(message.getReceiverIds())) {
+                if (recipientId != null) {
+                    deliveries.add(new Delivery(recipientId, message));
+                }
+            }
+        }
+        insert(deliveries);
+    }
+
+    private void insert(List<Delivery> deliveries) {
+        jdbcTemplate.batchUpdate(INSERT_ENTRY, deliveries, batchSize, (ps, delivery) -> {
+            Message message = delivery.message();
+            ps.setLong(1, delivery.recipientId());
+            ps.setLong(2, message.getId());
+            ps.setObject(3, message.getSenderId());
+            ps.setString(4, message.getContent());
+            ps.setString(5, message.getMediaUrl());
+            ps.setString(6, message.getType());
+            ps.setTimestamp(7, Timestamp.valueOf(message.getTimestamp()));
+        });
+    }
+
+    /**
+     * Recopie les destinataires des messages d'id dans ]fromExclusive, toInclusive].
+     * Idempotent grâce à INSERT IGNORE sur la clé (recipient_id, message_id).
+     */
+    public int backfillRange(long fromExclusive, long toInclusive) {
+        return jdbcTemplate.update(BACKFILL_RANGE, fromExclusive, toInclusive);
+    }
+
+    /**
+     * Id du dernier des chunkSize messages qui suivent afterId, null s'il n'y en a plus.
+     * Les ids Snowflake sont épars : les tranches suivent les ids existants, pas des plages fixes.
+     */
+    public Long findChunkEnd(long afterId, int chunkSize) {
+        return jdbcTemplate.queryForObject(CHUNK_END, Long.class, afterId, chunkSize);
+    }
+
+    private record Delivery(Long recipientId, Message message) {
+    }
+}
@@ -1,11 +1,44 @@
 package com.snapchat.messageservice.repo;
 
+import com.snapchat.messageservice.dto.InboxMessage;
 import com.snapchat.messageservice.entity.Message;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.NativeQuery;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface MessageRepository extends JpaRepository<Message, Long> {
     List<Message> findBySenderId(Long senderId);
     List<Message> findByReceiverIdsContaining(Long receiverId);
+
+    // Lu sur l'index (receiver_ids, message_id) : ids Snowflake croissants dans le temps, ni tri ni filesort
+    String INBOX_COLUMNS = """
+            SELECT m.id, m.sender_id, m.content, m.media_url, m.type, m.timestamp
+            FROM message_receiver_ids r
+            JOIN message m ON m.id = r.message_id
+            """;
+
+    @NativeQuery(sqlResultSetMapping = Message.INBOX_MESSAGE_MAPPING, value = INBOX_COLUMNS + """
+            WHERE r.receiver_ids = :receiverId
+            ORDER BY r.message_id DESC
+            """)
+    List<InboxMessage> findInboxFirstPage(@Param("receiverId") Long receiverId, Pageable pageable);
+
+    @NativeQuery(sqlResultSetMapping = Message.INBOX_MESSAGE_MAPPING, value = INBOX_COLUMNS + """
+            WHERE r.receiver_ids = :receiverId AND r.message_id < :id
+            ORDER BY r.message_id DESC
+            """)
+    List<InboxMessage> findInboxPageBefore(@Param("receiverId") Long receiverId,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
+
+    @NativeQuery(sqlResultSetMapping = Message.INBOX_MESSAGE_MAPPING, value = INBOX_COLUMNS + """
+            WHERE r.receiver_ids = :receiverId AND r.message_id > :id
+            ORDER BY r.message_id ASC
+            """)
+    List<InboxMessage> findInboxPageAfter(@Param("receiverId") Long receiverId,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
 }
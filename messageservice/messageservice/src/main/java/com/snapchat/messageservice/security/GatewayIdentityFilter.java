@@ -0,0 +1,48 @@
+package com.snapchat.messageservice.security;
+
+import com.snapchat.identity.IdentityHeader;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Alimente le SecurityContext depuis l'en-tête signé posé par la gateway.
+ * Le principal est l'id utilisateur ; aucun JWT n'est parsé et aucun service n'est appelé.
+ */
+public class GatewayIdentityFilter extends OncePerRequestFilter {
+
+    private final IdentityHeader identityHeader;
+
+    public GatewayIdentityFilter(IdentityHeader identityHeader) {
+        this.identityHeader = identityHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            identityHeader.verify(request.getHeader(IdentityHeader.NAME)).ifPresent(identity -> {
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                        identity.userId() != null ? identity.userId() : identity.email(),
+                        null,
+                        identity.role() == null ? List.of() : List.of(new SimpleGrantedAuthority(identity.role()))
+                );
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            });
+        }
+        filterChain.doFilter(request, response);
+    }
+}
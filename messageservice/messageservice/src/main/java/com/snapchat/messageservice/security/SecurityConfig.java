@@ -1,6 +1,7 @@
 package com.snapchat.messageservice.security;
 
-import lombok.RequiredArgsConstructor;
+import com.snapchat.identity.IdentityHeader;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -8,17 +9,26 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
-@RequiredArgsConstructor
 public class SecurityConfig {
 
+    private final IdentityHeader identityHeader;
+
+    public SecurityConfig(@Value("${app.identity.secret}") String identitySecret) {
+        this.identityHeader = new IdentityHeader(identitySecret);
+    }
+
 
     @Bean
     SecurityFilterChain openSecurityFilterChain(HttpSecurity httpSecurity) throws Exception {
+        // Les routes restent ouvertes (le client mobile appelle encore les services en direct),
+        // mais une requête venant de la gateway porte l'identité vérifiée
         httpSecurity.csrf(AbstractHttpConfigurer::disable)
+                .addFilterBefore(new GatewayIdentityFilter(identityHeader), UsernamePasswordAuthenticationFilter.class)
                 .authorizeHttpRequests(auth -> auth
                         .anyRequest().permitAll()
                 );
@@ -0,0 +1,44 @@
+package com.snapchat.messageservice.service;
+
+import com.snapchat.messageservice.repo.InboxEntryWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remplit inbox_entries à partir des messages existants avant de passer en mode fan-out.
+ * Parcourt la table message par clé (id > dernier id traité, par ordre d'id, chunkSize
+ * messages) ; chaque tranche est une seule requête INSERT ... SELECT idempotente, le job
+ * peut donc être relancé sans risque.
+ */
+@Component
+@ConditionalOnProperty(name = "messaging.inbox.backfill-on-startup", havingValue = "true")
+public class InboxBackfillJob implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(InboxBackfillJob.class);
+
+    private final InboxEntryWriter inboxEntryWriter;
+    private final int chunkSize;
+
+    public InboxBackfillJob(InboxEntryWriter inboxEntryWriter,
+                            @Value("${messaging.inbox.backfill-chunk-size:5000}") int chunkSize) {
+        this.inboxEntryWriter = inboxEntryWriter;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long lastId = 0;
+        long inserted = 0;
+        Long chunkEnd;
+        while ((chunkEnd = inboxEntryWriter.findChunkEnd(lastId, chunkSize)) != null) {
+            inserted += inboxEntryWriter.backfillRange(lastId, chunkEnd);
+            lastId = chunkEnd;
+        }
+        log.info("Inbox backfill done: {} entries inserted up to message id {}", inserted, lastId);
+    }
+}
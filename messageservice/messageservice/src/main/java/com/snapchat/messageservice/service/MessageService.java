@@ -1,22 +1,53 @@
 package com.snapchat.messageservice.service;
 
+import com.snapchat.messageservice.dto.InboxCursor;
+import com.snapchat.messageservice.dto.InboxMessage;
+import com.snapchat.messageservice.dto.InboxPage;
+import com.snapchat.messageservice.dto.MessageRequest;
 import com.snapchat.messageservice.entity.Message;
+import com.snapchat.messageservice.repo.InboxEntryRepository;
+import com.snapchat.messageservice.repo.InboxEntryWriter;
 import com.snapchat.messageservice.repo.MessageRepository;
+import com.snapchat.messageservice.service.push.MessageSentEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 @Service
 public class MessageService {
 
+    static final int DEFAULT_INBOX_PAGE_SIZE = 50;
+    static final int MAX_INBOX_PAGE_SIZE = 200;
+    static final int MAX_BATCH_SEND_SIZE = 500;
+
     private final MessageRepository messageRepository;
+    private final InboxEntryRepository inboxEntryRepository;
+    private final InboxEntryWriter inboxEntryWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean fanOutOnWrite;
 
-    public MessageService(MessageRepository messageRepository) {
+    public MessageService(MessageRepository messageRepository,
+                          InboxEntryRepository inboxEntryRepository,
+                          InboxEntryWriter inboxEntryWriter,
+                          ApplicationEventPublisher eventPublisher,
+                          @Value("${messaging.inbox.fan-out:false}") boolean fanOutOnWrite) {
         this.messageRepository = messageRepository;
+        this.inboxEntryRepository = inboxEntryRepository;
+        this.inboxEntryWriter = inboxEntryWriter;
+        this.eventPublisher = eventPublisher;
+        this.fanOutOnWrite = fanOutOnWrite;
     }
 
-    public Message sendMessage(Long senderId, List<Long> receivers, String content, String mediaUrl, String type) {
+    @Transactional
+    public Message sendMessage(Long senderId, List<Long> receiverIds, String content, String mediaUrl, String type) {
+        List<Long> receivers = distinctRecipients(receiverIds);
         Message message = new Message();
         message.setSenderId(senderId);
         message.setReceiverIds(receivers);
@@ -25,15 +56,100 @@ public class MessageService {
         message.setType(type);
         message.setTimestamp(LocalDateTime.now());
 
-        return messageRepository.save(message);
+        Message saved = messageRepository.save(message);
+        if (fanOutOnWrite && receivers != null && !receivers.isEmpty()) {
+            inboxEntryWriter.fanOut(saved, receivers);
+        }
+        // Poussé aux abonnés seulement après le commit
+        eventPublisher.publishEvent(new MessageSentEvent(saved));
+        return saved;
+    }
+
+    /**
+     * Envoie plusieurs messages dans une seule transaction. Les ids étant générés côté application,
+     * les inserts de Message et de receiverIds partent en batch JDBC au flush.
+     */
+    @Transactional
+    public List<Message> sendMessages(List<MessageRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one message is required");
+        }
+        if (requests.size() > MAX_BATCH_SEND_SIZE) {
+            throw new IllegalArgumentException("Cannot send more than " + MAX_BATCH_SEND_SIZE + " messages at once");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Message> messages = new ArrayList<>(requests.size());
+        for (MessageRequest request : requests) {
+            Message message = new Message();
+            message.setSenderId(request.getSenderId());
+            message.setReceiverIds(distinctRecipients(request.getReceiverIds()));
+            message.setContent(request.getContent());
+            message.setMediaUrl(request.getMediaUrl());
+            message.setType(request.getType());
+            message.setTimestamp(now);
+            messages.add(message);
+        }
+
+        List<Message> saved = messageRepository.saveAll(messages);
+        if (fanOutOnWrite) {
+            inboxEntryWriter.fanOutAll(saved);
+        }
+        saved.forEach(message -> eventPublisher.publishEvent(new MessageSentEvent(message)));
+        return saved;
+    }
+
+    // Destinataires sans null ni doublon, dans l'ordre de la requête : une ligne par destinataire
+    // partout (receiver_ids, inbox_entries, push), et aucun null à déballer dans le batch JDBC
+    static List<Long> distinctRecipients(List<Long> receiverIds) {
+        if (receiverIds == null) {
+            return null;
+        }
+        LinkedHashSet<Long> distinct = new LinkedHashSet<>(receiverIds);
+        distinct.remove(null);
+        return new ArrayList<>(distinct);
     }
 
     public List<Message> getMessagesForUser(Long userId) {
         return messageRepository.findByReceiverIdsContaining(userId);
     }
 
+    public InboxPage getInbox(Long userId, String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_INBOX_PAGE_SIZE : Math.min(Math.max(size, 1), MAX_INBOX_PAGE_SIZE);
+        // On demande un élément de plus pour savoir s'il existe une page suivante
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<InboxMessage> messages;
+        if (cursor == null || cursor.isBlank()) {
+            messages = fanOutOnWrite
+                    ? inboxEntryRepository.findInboxFirstPage(userId, limit)
+                    : messageRepository.findInboxFirstPage(userId, limit);
+        } else {
+            InboxCursor after = InboxCursor.decode(cursor);
+            messages = fanOutOnWrite
+                    ? inboxEntryRepository.findInboxPageBefore(userId, after.id(), limit)
+                    : messageRepository.findInboxPageBefore(userId, after.id(), limit);
+        }
+
+        if (messages.size() <= pageSize) {
+            return new InboxPage(messages, null);
+        }
+        List<InboxMessage> page = messages.subList(0, pageSize);
+        return new InboxPage(page, InboxCursor.of(page.get(pageSize - 1)).encode());
+    }
+
+    /**
+     * Messages reçus strictement après le curseur, du plus ancien au plus récent.
+     * Utilisé pour rattraper ce qu'un client a manqué pendant une déconnexion.
+     */
+    public List<InboxMessage> getInboxAfter(Long userId, InboxCursor cursor, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        return fanOutOnWrite
+                ? inboxEntryRepository.findInboxPageAfter(userId, cursor.id(), page)
+                : messageRepository.findInboxPageAfter(userId, cursor.id(), page);
+    }
+
     public List<Message> getMessagesSentByUser(Long userId) {
         return messageRepository.findBySenderId(userId);
     }
 }
-
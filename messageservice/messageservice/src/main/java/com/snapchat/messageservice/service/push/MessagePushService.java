@@ -0,0 +1,285 @@
+package com.snapchat.messageservice.service.push;
+
+import com.snapchat.messageservice.dto.InboxCursor;
+import com.snapchat.messageservice.dto.InboxMessage;
+import com.snapchat.messageservice.entity.Message;
+import com.snapchat.messageservice.service.MessageService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Diffusion en temps réel des messages reçus via Server-Sent Events.
+ * <p>
+ * Chaque utilisateur connecté possède un ou plusieurs abonnements en mémoire. Les messages
+ * d'un abonnement sont mis en file puis envoyés groupés toutes les flushIntervalMs : une
+ * connexion très sollicitée reçoit un seul événement contenant plusieurs messages au lieu
+ * d'une écriture réseau par message. L'id de chaque événement est le curseur du dernier
+ * message envoyé, ce qui permet au client de reprendre avec Last-Event-ID.
+ * <p>
+ * Les écritures passent par un pool borné (messaging.push.send-threads), une seule à la fois
+ * par abonnement. Un abonné lent ne bloque pas les autres : il est déconnecté si une écriture
+ * dépasse send-timeout-ms, si sa file dépasse max-pending ou si le pool est saturé ; il
+ * reprendra avec Last-Event-ID. Si le rattrapage dépasse maxReplay messages, un événement
+ * {@value #RESYNC_EVENT_NAME} demande au client de recharger sa boîte de réception.
+ * Un commentaire SSE est envoyé aux connexions inactives toutes les heartbeat-interval-ms
+ * pour que proxys et load balancers ne les coupent pas.
+ */
+@Service
+public class MessagePushService {
+
+    static final String EVENT_NAME = "messages";
+    static final String RESYNC_EVENT_NAME = "resync";
+
+    private static final Logger log = LoggerFactory.getLogger(MessagePushService.class);
+
+    private final MessageService messageService;
+    private final Map<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "message-push-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ThreadPoolExecutor sender;
+    private final long emitterTimeoutMs;
+    private final long flushIntervalMs;
+    private final int maxBatchSize;
+    private final int maxReplay;
+    private final long sendTimeoutMs;
+    private final int maxPending;
+    private final long heartbeatIntervalMs;
+
+    public MessagePushService(MessageService messageService,
+                              @Value("${messaging.push.emitter-timeout-ms:1800000}") long emitterTimeoutMs,
+                              @Value("${messaging.push.flush-interval-ms:50}") long flushIntervalMs,
+                              @Value("${messaging.push.max-batch-size:100}") int maxBatchSize,
+                              @Value("${messaging.push.max-replay:500}") int maxReplay,
+                              @Value("${messaging.push.send-threads:8}") int sendThreads,
+                              @Value("${messaging.push.send-queue-capacity:10000}") int sendQueueCapacity,
+                              @Value("${messaging.push.send-timeout-ms:5000}") long sendTimeoutMs,
+                              @Value("${messaging.push.max-pending:1000}") int maxPending,
+                              @Value("${messaging.push.heartbeat-interval-ms:15000}") long heartbeatIntervalMs) {
+        this.messageService = messageService;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.flushIntervalMs = flushIntervalMs;
+        this.maxBatchSize = maxBatchSize;
+        this.maxReplay = maxReplay;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.maxPending = maxPending;
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+
+        AtomicInteger threads = new AtomicInteger();
+        this.sender = new ThreadPoolExecutor(sendThreads, sendThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(sendQueueCapacity), r -> {
+            Thread thread = new Thread(r, "message-push-sender-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleAtFixedRate(this::heartbeat, heartbeatIntervalMs, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ouvre un flux pour userId. Si resumeCursor est fourni, les messages reçus après ce
+     * curseur sont renvoyés avant le direct. L'abonnement est enregistré avant le rattrapage :
+     * un message peut donc arriver deux fois, le client dédoublonne par id.
+     */
+    public SseEmitter subscribe(Long userId, String resumeCursor) {
+        InboxCursor cursor = resumeCursor == null || resumeCursor.isBlank() ? null : InboxCursor.decode(resumeCursor);
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        // Place pour un rattrapage complet en plus des messages arrivés entre-temps
+        Subscription subscription = new Subscription(userId, emitter, maxPending + maxReplay);
+        subscriptions.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscription);
+
+        Runnable remove = () -> unsubscribe(subscription);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        if (cursor != null) {
+            // Un de plus que maxReplay pour savoir si le trou dépasse ce qu'on peut rejouer
+            List<InboxMessage> missed = messageService.getInboxAfter(userId, cursor, maxReplay + 1);
+            if (missed.size() > maxReplay) {
+                subscription.resync = true;
+            } else {
+                subscription.pending.addAll(missed);
+            }
+            scheduleFlush(subscription, 0);
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageSent(MessageSentEvent event) {
+        Message message = event.message();
+        if (message.getReceiverIds() == null || subscriptions.isEmpty()) {
+            return;
+        }
+        InboxMessage payload = InboxMessage.from(message);
+        for (Long receiverId : new LinkedHashSet<>(message.getReceiverIds())) {
+            Set<Subscription> userSubscriptions = subscriptions.get(receiverId);
+            if (userSubscriptions == null) {
+                continue;
+            }
+            for (Subscription subscription : userSubscriptions) {
+                if (!subscription.pending.offer(payload)) {
+                    drop(subscription, "too many pending messages");
+                    continue;
+                }
+                scheduleFlush(subscription, flushIntervalMs);
+            }
+        }
+    }
+
+    public int connectedUsers() {
+        return subscriptions.size();
+    }
+
+    private void scheduleFlush(Subscription subscription, long delayMs) {
+        if (subscription.flushScheduled.compareAndSet(false, true)) {
+            flusher.schedule(() -> dispatch(subscription), delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Écriture sur le pool d'envoi, bornée dans le temps ; le flusher ne bloque jamais sur le réseau
+    private void dispatch(Subscription subscription) {
+        if (subscription.closed.get()) {
+            return;
+        }
+        try {
+            CompletableFuture.runAsync(() -> flush(subscription), sender)
+                    .orTimeout(sendTimeoutMs, TimeUnit.MILLISECONDS)
+                    .whenComplete((ignored, error) -> {
+                        if (error != null) {
+                            drop(subscription, "send failed or timed out");
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            drop(subscription, "send queue full");
+        }
+    }
+
+    private void flush(Subscription subscription) {
+        if (subscription.resync) {
+            subscription.resync = false;
+            send(subscription, SseEmitter.event().name(RESYNC_EVENT_NAME).data("inbox"));
+        }
+        List<InboxMessage> batch = new ArrayList<>();
+        InboxMessage next;
+        while ((next = subscription.pending.poll()) != null) {
+            batch.add(next);
+            if (batch.size() == maxBatchSize) {
+                sendBatch(subscription, batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            sendBatch(subscription, batch);
+        }
+        if (subscription.heartbeatDue.compareAndSet(true, false)
+                && System.currentTimeMillis() - subscription.lastSentAt >= heartbeatIntervalMs) {
+            send(subscription, SseEmitter.event().comment("heartbeat"));
+        }
+        // Une seule écriture à la fois par abonnement : ce qui est arrivé pendant l'envoi repart ensuite
+        subscription.flushScheduled.set(false);
+        if (!subscription.pending.isEmpty() || subscription.heartbeatDue.get()) {
+            scheduleFlush(subscription, flushIntervalMs);
+        }
+    }
+
+    private void sendBatch(Subscription subscription, List<InboxMessage> batch) {
+        InboxMessage last = batch.get(batch.size() - 1);
+        send(subscription, SseEmitter.event()
+                .name(EVENT_NAME)
+                .id(InboxCursor.of(last).encode())
+                .data(batch));
+    }
+
+    private void send(Subscription subscription, SseEmitter.SseEventBuilder event) {
+        if (subscription.closed.get()) {
+            return;
+        }
+        try {
+            subscription.emitter.send(event);
+            subscription.lastSentAt = System.currentTimeMillis();
+        } catch (IOException | IllegalStateException e) {
+            subscription.closed.set(true);
+            subscription.emitter.completeWithError(e);
+        }
+    }
+
+    private void heartbeat() {
+        long idleSince = System.currentTimeMillis() - heartbeatIntervalMs;
+        subscriptions.values().forEach(userSubscriptions -> userSubscriptions.forEach(subscription -> {
+            if (subscription.lastSentAt <= idleSince) {
+                subscription.heartbeatDue.set(true);
+                scheduleFlush(subscription, 0);
+            }
+        }));
+    }
+
+    private void drop(Subscription subscription, String reason) {
+        if (subscription.closed.compareAndSet(false, true)) {
+            log.info("Dropping message stream of user {}: {}", subscription.userId, reason);
+            unsubscribe(subscription);
+            subscription.pending.clear();
+            subscription.emitter.complete();
+        }
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        subscription.closed.set(true);
+        subscriptions.computeIfPresent(subscription.userId, (id, userSubscriptions) -> {
+            userSubscriptions.remove(subscription);
+            return userSubscriptions.isEmpty() ? null : userSubscriptions;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdownNow();
+        sender.shutdownNow();
+        subscriptions.values().forEach(userSubscriptions -> userSubscriptions.forEach(s -> s.emitter.complete()));
+        subscriptions.clear();
+    }
+
+    private static final class Subscription {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<InboxMessage> pending;
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+        private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean resync;
+        private volatile long lastSentAt = System.currentTimeMillis();
+
+        private Subscription(Long userId, SseEmitter emitter, int maxPending) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.pending = new LinkedBlockingQueue<>(maxPending);
+        }
+    }
+}
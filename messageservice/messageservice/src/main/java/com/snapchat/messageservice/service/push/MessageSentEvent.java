@@ -0,0 +1,6 @@
+package com.snapchat.messageservice.service.push;
+
+import com.snapchat.messageservice.entity.Message;
+
+public record MessageSentEvent(Message message) {
+}
@@ -0,0 +1,72 @@
+package com.snapchat.messageservice.controller;
+
+import com.snapchat.identity.IdentityHeader;
+import com.snapchat.messageservice.security.SecurityConfig;
+import com.snapchat.messageservice.service.MessageService;
+import com.snapchat.messageservice.service.push.MessagePushService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = MessageController.class, properties = "app.identity.secret=" + MessageControllerTest.SECRET)
+@Import(SecurityConfig.class)
+class MessageControllerTest {
+
+    static final String SECRET = "test-identity-secret-0123456789abcdef";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private MessageService messageService;
+    @MockitoBean
+    private MessagePushService messagePushService;
+
+    static String identity(String userId) {
+        long now = System.currentTimeMillis() / 1000;
+        return new IdentityHeader(SECRET).sign(new IdentityHeader.Identity(userId, userId + "@test.com", "ROLE_USER", now, now + 60));
+    }
+
+    @Test
+    void streamOfAnotherUserIsForbidden() throws Exception {
+        mockMvc.perform(get("/messages/stream/7").header(IdentityHeader.NAME, identity("8")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/messages/stream/7"))
+                .andExpect(status().isUnauthorized());
+        verify(messagePushService, never()).subscribe(anyLong(), any());
+    }
+
+    @Test
+    void ownStreamIsOpened() throws Exception {
+        when(messagePushService.subscribe(7L, null)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/messages/stream/7").header(IdentityHeader.NAME, identity("7")))
+                .andExpect(status().isOk());
+        verify(messagePushService).subscribe(7L, null);
+    }
+
+    @Test
+    void inboxIsReadForTheAuthenticatedUserOnly() throws Exception {
+        mockMvc.perform(get("/messages/inbox/7").header(IdentityHeader.NAME, identity("8")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/messages/inbox"))
+                .andExpect(status().isUnauthorized());
+        verify(messageService, never()).getInbox(anyLong(), any(), any());
+
+        mockMvc.perform(get("/messages/inbox").header(IdentityHeader.NAME, identity("8")))
+                .andExpect(status().isOk());
+        verify(messageService).getInbox(8L, null, null);
+    }
+}
@@ -0,0 +1,123 @@
+package com.snapchat.messageservice.repo;
+
+import com.snapchat.messageservice.dto.InboxCursor;
+import com.snapchat.messageservice.dto.InboxMessage;
+import com.snapchat.messageservice.entity.InboxEntry;
+import com.snapchat.messageservice.entity.Message;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class InboxPaginationTest {
+
+    private static final long ME = 1L;
+    private static final long OTHER = 2L;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private InboxEntryRepository inboxEntryRepository;
+
+    // Ids Snowflake croissants, du plus ancien au plus récent
+    private final List<Long> mine = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Même horodatage pour tous : l'ordre ne doit dépendre que de l'id
+        LocalDateTime sentAt = LocalDateTime.of(2026, 1, 1, 12, 0);
+        for (int i = 0; i < 5; i++) {
+            Message message = message(sentAt, List.of(ME, OTHER));
+            mine.add(message.getId());
+            inboxEntryRepository.save(entry(ME, message));
+            inboxEntryRepository.save(entry(OTHER, message));
+        }
+        Message notMine = message(sentAt, List.of(OTHER));
+        inboxEntryRepository.save(entry(OTHER, notMine));
+        assertTrue(mine.get(0) < mine.get(4));
+    }
+
+    @Test
+    void messagePagesFollowIdsWithExclusiveBounds() {
+        assertEquals(List.of(mine.get(4), mine.get(3)),
+                ids(messageRepository.findInboxFirstPage(ME, PageRequest.of(0, 2))));
+        assertEquals(List.of(mine.get(2), mine.get(1)),
+                ids(messageRepository.findInboxPageBefore(ME, mine.get(3), PageRequest.of(0, 2))));
+        assertEquals(List.of(mine.get(0)),
+                ids(messageRepository.findInboxPageBefore(ME, mine.get(1), PageRequest.of(0, 2))));
+        assertEquals(List.of(), messageRepository.findInboxPageBefore(ME, mine.get(0), PageRequest.of(0, 2)));
+
+        assertEquals(List.of(mine.get(3), mine.get(4)),
+                ids(messageRepository.findInboxPageAfter(ME, mine.get(2), PageRequest.of(0, 10))));
+        assertEquals(List.of(), messageRepository.findInboxPageAfter(ME, mine.get(4), PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void messagePageCarriesTheMessageFields() {
+        InboxMessage newest = messageRepository.findInboxFirstPage(ME, PageRequest.of(0, 1)).get(0);
+
+        assertEquals(42L, newest.senderId());
+        assertEquals("hello", newest.content());
+        assertEquals("TEXT", newest.type());
+    }
+
+    @Test
+    void fanOutPagesFollowIdsWithExclusiveBounds() {
+        assertEquals(List.of(mine.get(4), mine.get(3)),
+                ids(inboxEntryRepository.findInboxFirstPage(ME, PageRequest.of(0, 2))));
+        assertEquals(List.of(mine.get(2), mine.get(1), mine.get(0)),
+                ids(inboxEntryRepository.findInboxPageBefore(ME, mine.get(3), PageRequest.of(0, 10))));
+        assertEquals(List.of(mine.get(4)),
+                ids(inboxEntryRepository.findInboxPageAfter(ME, mine.get(3), PageRequest.of(0, 10))));
+        assertEquals(6, inboxEntryRepository.findInboxFirstPage(OTHER, PageRequest.of(0, 10)).size());
+    }
+
+    @Test
+    void cursorRoundTripsAndAcceptsTheLegacyFormat() {
+        InboxCursor cursor = new InboxCursor(mine.get(2));
+        assertEquals(cursor, InboxCursor.decode(cursor.encode()));
+
+        String legacy = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("2026-01-01T12:00|" + mine.get(2)).getBytes(StandardCharsets.UTF_8));
+        assertEquals(cursor, InboxCursor.decode(legacy));
+        assertThrows(IllegalArgumentException.class, () -> InboxCursor.decode("not a cursor"));
+    }
+
+    private Message message(LocalDateTime sentAt, List<Long> receivers) {
+        Message message = new Message();
+        message.setSenderId(42L);
+        message.setReceiverIds(new ArrayList<>(receivers));
+        message.setContent("hello");
+        message.setType("TEXT");
+        message.setTimestamp(sentAt);
+        return messageRepository.saveAndFlush(message);
+    }
+
+    private static InboxEntry entry(Long recipientId, Message message) {
+        InboxEntry entry = new InboxEntry();
+        entry.setRecipientId(recipientId);
+        entry.setMessageId(message.getId());
+        entry.setSenderId(message.getSenderId());
+        entry.setContent(message.getContent());
+        entry.setType(message.getType());
+        entry.setTimestamp(message.getTimestamp());
+        return entry;
+    }
+
+    private static List<Long> ids(List<InboxMessage> messages) {
+        return messages.stream().map(InboxMessage::id).toList();
+    }
+}
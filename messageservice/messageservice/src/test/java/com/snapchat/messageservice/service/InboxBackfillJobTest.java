@@ -0,0 +1,69 @@
+package com.snapchat.messageservice.service;
+
+import com.snapchat.messageservice.repo.InboxEntryWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class InboxBackfillJobTest {
+
+    // Ids Snowflake : épars et très grands, une boucle sur des plages fixes ne finirait jamais
+    private static final List<Long> MESSAGE_IDS = List.of(
+            7_300_000_000_000_000_001L, 7_300_000_000_000_000_002L, 7_300_000_000_004_000_000L,
+            7_300_000_100_000_000_000L, 7_400_000_000_000_000_000L);
+
+    private JdbcTemplate jdbcTemplate;
+    private InboxEntryWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:backfill;MODE=MySQL;DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("CREATE TABLE message (id BIGINT PRIMARY KEY, sender_id BIGINT, content VARCHAR(255), "
+                + "media_url VARCHAR(255), type VARCHAR(32), timestamp TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE message_receiver_ids (message_id BIGINT, receiver_ids BIGINT)");
+        jdbcTemplate.execute("CREATE TABLE inbox_entries (recipient_id BIGINT, message_id BIGINT, sender_id BIGINT, "
+                + "content VARCHAR(255), media_url VARCHAR(255), type VARCHAR(32), timestamp TIMESTAMP, "
+                + "PRIMARY KEY (recipient_id, message_id))");
+        for (Long id : MESSAGE_IDS) {
+            jdbcTemplate.update("INSERT INTO message VALUES (?, 1, 'hi', NULL, 'TEXT', CURRENT_TIMESTAMP)", id);
+            jdbcTemplate.update("INSERT INTO message_receiver_ids VALUES (?, 2)", id);
+            jdbcTemplate.update("INSERT INTO message_receiver_ids VALUES (?, 3)", id);
+        }
+        writer = new InboxEntryWriter(jdbcTemplate, 500);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void chunkEndFollowsExistingIds() {
+        assertEquals(MESSAGE_IDS.get(1), writer.findChunkEnd(0, 2));
+        assertEquals(MESSAGE_IDS.get(3), writer.findChunkEnd(MESSAGE_IDS.get(1), 2));
+        assertEquals(MESSAGE_IDS.get(4), writer.findChunkEnd(MESSAGE_IDS.get(3), 2));
+        assertNull(writer.findChunkEnd(MESSAGE_IDS.get(4), 2));
+    }
+
+    @Test
+    void backfillCopiesEveryRecipientOnceAndCanBeRerun() {
+        InboxBackfillJob job = new InboxBackfillJob(writer, 2);
+
+        job.run(null);
+        job.run(null);
+
+        assertEquals(MESSAGE_IDS.size() * 2,
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inbox_entries", Integer.class));
+        assertEquals(MESSAGE_IDS.get(0),
+                jdbcTemplate.queryForObject("SELECT MIN(message_id) FROM inbox_entries", Long.class));
+        assertEquals(MESSAGE_IDS.get(4),
+                jdbcTemplate.queryForObject("SELECT MAX(message_id) FROM inbox_entries", Long.class));
+    }
+}
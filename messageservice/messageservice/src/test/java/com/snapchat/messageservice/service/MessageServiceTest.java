@@ -0,0 +1,79 @@
+package com.snapchat.messageservice.service;
+
+import com.snapchat.messageservice.dto.MessageRequest;
+import com.snapchat.messageservice.entity.Message;
+import com.snapchat.messageservice.repo.InboxEntryRepository;
+import com.snapchat.messageservice.repo.InboxEntryWriter;
+import com.snapchat.messageservice.repo.MessageRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MessageServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private MessageService messageService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:send;MODE=MySQL;DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("CREATE TABLE inbox_entries (recipient_id BIGINT, message_id BIGINT, sender_id BIGINT, "
+                + "content VARCHAR(255), media_url VARCHAR(255), type VARCHAR(32), timestamp TIMESTAMP, "
+                + "PRIMARY KEY (recipient_id, message_id))");
+        AtomicLong ids = new AtomicLong(100);
+        MessageRepository messageRepository = mock(MessageRepository.class);
+        when(messageRepository.save(any(Message.class))).thenAnswer(invocation -> {
+            Message message = invocation.getArgument(0);
+            message.setId(ids.incrementAndGet());
+            return message;
+        });
+        when(messageRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Message> messages = invocation.getArgument(0);
+            messages.forEach(message -> message.setId(ids.incrementAndGet()));
+            return messages;
+        });
+        messageService = new MessageService(messageRepository, mock(InboxEntryRepository.class),
+                new InboxEntryWriter(jdbcTemplate, 500), mock(ApplicationEventPublisher.class), true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void nullAndDuplicateRecipientsAreDropped() {
+        Message sent = messageService.sendMessage(1L, Arrays.asList(2L, null, 3L, 2L), "hi", null, "TEXT");
+
+        assertEquals(List.of(2L, 3L), sent.getReceiverIds());
+        assertEquals(List.of(2L, 3L), jdbcTemplate.queryForList(
+                "SELECT recipient_id FROM inbox_entries ORDER BY recipient_id", Long.class));
+    }
+
+    @Test
+    void batchSendDropsNullRecipients() {
+        MessageRequest request = new MessageRequest();
+        request.setSenderId(1L);
+        request.setReceiverIds(Arrays.asList(null, 4L, 4L));
+        request.setContent("hi");
+        request.setType("TEXT");
+
+        List<Message> sent = messageService.sendMessages(List.of(request));
+
+        assertEquals(List.of(4L), sent.get(0).getReceiverIds());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inbox_entries", Integer.class));
+    }
+}
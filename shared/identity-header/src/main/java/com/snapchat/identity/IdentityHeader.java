@@ -0,0 +1,98 @@
+package com.snapchat.identity;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * En-tête d'identité signé que la gateway transmet aux services après avoir vérifié le JWT.
+ * Format : base64url(userId \n email \n role \n issuedAt \n expiresAt) "." base64url(HMAC-SHA256).
+ * Les services le vérifient avec le secret partagé, sans parser de JWT ni lire la table users.
+ */
+public final class IdentityHeader {
+
+    public static final String NAME = "X-Auth-Identity";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int FIELDS = 5;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    // Mac n'est pas thread-safe : une instance par thread
+    private final ThreadLocal<Mac> mac;
+
+    public IdentityHeader(String secret) {
+        if (secret == null || secret.length() < 32) {
+            throw new IllegalArgumentException("Identity secret must be at least 32 characters");
+        }
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.mac = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String sign(Identity identity) {
+        String payload = ENCODER.encodeToString(String.join("\n",
+                identity.userId() == null ? "" : identity.userId(),
+                identity.email(),
+                identity.role() == null ? "" : identity.role(),
+                Long.toString(identity.issuedAt()),
+                Long.toString(identity.expiresAt())).getBytes(StandardCharsets.UTF_8));
+        return payload + "." + ENCODER.encodeToString(hmac(payload));
+    }
+
+    /**
+     * Identité portée par l'en-tête, vide si l'en-tête est absent, mal formé, falsifié ou expiré.
+     */
+    public Optional<Identity> verify(String header) {
+        if (header == null) {
+            return Optional.empty();
+        }
+        int dot = header.indexOf('.');
+        if (dot <= 0) {
+            return Optional.empty();
+        }
+        String payload = header.substring(0, dot);
+        try {
+            if (!MessageDigest.isEqual(hmac(payload), DECODER.decode(header.substring(dot + 1)))) {
+                return Optional.empty();
+            }
+            String[] fields = new String(DECODER.decode(payload), StandardCharsets.UTF_8).split("\n", -1);
+            if (fields.length != FIELDS) {
+                return Optional.empty();
+            }
+            Identity identity = new Identity(
+                    fields[0].isEmpty() ? null : fields[0],
+                    fields[1],
+                    fields[2].isEmpty() ? null : fields[2],
+                    Long.parseLong(fields[3]),
+                    Long.parseLong(fields[4]));
+            return identity.expiresAt() * 1000 > System.currentTimeMillis() ? Optional.of(identity) : Optional.empty();
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] hmac(String payload) {
+        return mac.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(ALGORITHM);
+            instance.init(key);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * issuedAt et expiresAt en secondes epoch, recopiés des claims iat et exp du JWT d'origine.
+     */
+    public record Identity(String userId, String email, String role, long issuedAt, long expiresAt) {
+    }
+}
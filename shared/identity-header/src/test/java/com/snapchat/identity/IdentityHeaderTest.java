@@ -0,0 +1,75 @@
+package com.snapchat.identity;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdentityHeaderTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private final IdentityHeader identityHeader = new IdentityHeader(SECRET);
+
+    @Test
+    void signedIdentityRoundTrips() {
+        IdentityHeader.Identity identity = new IdentityHeader.Identity("42", "alice@example.com", "USER", now() - 60, now() + 3600);
+
+        assertEquals(Optional.of(identity), identityHeader.verify(identityHeader.sign(identity)));
+    }
+
+    @Test
+    void missingUserIdAndRoleRoundTripAsNull() {
+        IdentityHeader.Identity identity = new IdentityHeader.Identity(null, "bob@example.com", null, now(), now() + 60);
+
+        assertEquals(Optional.of(identity), identityHeader.verify(identityHeader.sign(identity)));
+    }
+
+    @Test
+    void headerSignedWithAnotherSecretIsRejected() {
+        IdentityHeader other = new IdentityHeader("another-secret-another-secret-123");
+        String header = other.sign(new IdentityHeader.Identity("42", "alice@example.com", "USER", now(), now() + 3600));
+
+        assertTrue(identityHeader.verify(header).isEmpty());
+    }
+
+    @Test
+    void tamperedPayloadIsRejected() {
+        String header = identityHeader.sign(new IdentityHeader.Identity("42", "alice@example.com", "USER", now(), now() + 3600));
+        String signature = header.substring(header.indexOf('.'));
+        String forged = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                ("42\nalice@example.com\nADMIN\n" + now() + "\n" + (now() + 3600)).getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(identityHeader.verify(forged + signature).isEmpty());
+    }
+
+    @Test
+    void expiredIdentityIsRejected() {
+        String header = identityHeader.sign(new IdentityHeader.Identity("42", "alice@example.com", "USER", now() - 7200, now() - 1));
+
+        assertTrue(identityHeader.verify(header).isEmpty());
+    }
+
+    @Test
+    void malformedHeadersAreRejected() {
+        assertTrue(identityHeader.verify(null).isEmpty());
+        assertTrue(identityHeader.verify("no-dot").isEmpty());
+        assertTrue(identityHeader.verify(".signature").isEmpty());
+        assertTrue(identityHeader.verify("!!!.###").isEmpty());
+    }
+
+    @Test
+    void shortSecretIsRefused() {
+        assertThrows(IllegalArgumentException.class, () -> new IdentityHeader("too-short"));
+        assertThrows(IllegalArgumentException.class, () -> new IdentityHeader(null));
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
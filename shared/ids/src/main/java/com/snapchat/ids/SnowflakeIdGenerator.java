@@ -0,0 +1,79 @@
+package com.snapchat.ids;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Générateur d'ids 64 bits ordonnés dans le temps, façon Snowflake :
+ * <pre>
+ * | 1 bit signe (0) | 41 bits millisecondes depuis EPOCH | 10 bits worker | 12 bits séquence |
+ * </pre>
+ * Jusqu'à 4096 ids par milliseconde et par worker, sans aller-retour en base. Deux instances
+ * qui écrivent dans la même base doivent avoir un workerId différent.
+ */
+public final class SnowflakeIdGenerator {
+
+    // 2025-01-01T00:00:00Z
+    static final long EPOCH = 1735689600000L;
+
+    static final int WORKER_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_WORKER_ID = (1L << WORKER_BITS) - 1;
+    static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final Map<Long, SnowflakeIdGenerator> GENERATORS = new ConcurrentHashMap<>();
+
+    private final long workerId;
+    private long lastTimestamp = -1L;
+    private long sequence;
+
+    private SnowflakeIdGenerator(long workerId) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("Worker id must be between 0 and " + MAX_WORKER_ID);
+        }
+        this.workerId = workerId;
+    }
+
+    /**
+     * Un seul générateur par worker dans la JVM, partagé par toutes les entités.
+     */
+    public static SnowflakeIdGenerator forWorker(long workerId) {
+        return GENERATORS.computeIfAbsent(workerId, SnowflakeIdGenerator::new);
+    }
+
+    public synchronized long nextId() {
+        long timestamp = System.currentTimeMillis();
+        if (timestamp < lastTimestamp) {
+            // Horloge recalée en arrière : on reste sur le dernier instant connu plutôt que de risquer un doublon
+            timestamp = lastTimestamp;
+        }
+        if (timestamp == lastTimestamp) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                timestamp = waitNextMillis(lastTimestamp);
+            }
+        } else {
+            sequence = 0;
+        }
+        lastTimestamp = timestamp;
+        return ((timestamp - EPOCH) << (WORKER_BITS + SEQUENCE_BITS))
+                | (workerId << SEQUENCE_BITS)
+                | sequence;
+    }
+
+    /**
+     * Instant de création encodé dans un id, en millisecondes epoch.
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (WORKER_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+
+    private static long waitNextMillis(long lastTimestamp) {
+        long timestamp = System.currentTimeMillis();
+        while (timestamp <= lastTimestamp) {
+            Thread.onSpinWait();
+            timestamp = System.currentTimeMillis();
+        }
+        return timestamp;
+    }
+}
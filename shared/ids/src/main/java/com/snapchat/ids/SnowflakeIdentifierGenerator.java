@@ -0,0 +1,32 @@
+package com.snapchat.ids;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+
+/**
+ * Branche {@link SnowflakeIdGenerator} dans Hibernate. L'id est connu avant l'insert,
+ * les inserts restent donc groupables en batch JDBC.
+ */
+public class SnowflakeIdentifierGenerator implements IdentifierGenerator {
+
+    static final String WORKER_ID_SETTING = "ids.worker-id";
+
+    private final SnowflakeIdGenerator generator;
+
+    public SnowflakeIdentifierGenerator(SnowflakeId config, Member member, CustomIdGeneratorCreationContext context) {
+        Object workerId = context.getServiceRegistry()
+                .requireService(ConfigurationService.class)
+                .getSettings()
+                .get(WORKER_ID_SETTING);
+        this.generator = SnowflakeIdGenerator.forWorker(workerId == null ? 0L : Long.parseLong(workerId.toString()));
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return generator.nextId();
+    }
+}
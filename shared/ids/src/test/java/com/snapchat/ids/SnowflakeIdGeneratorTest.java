@@ -0,0 +1,45 @@
+package com.snapchat.ids;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnowflakeIdGeneratorTest {
+
+    @Test
+    void idsAreUniqueAndIncreasing() {
+        SnowflakeIdGenerator generator = SnowflakeIdGenerator.forWorker(3);
+        Set<Long> seen = new HashSet<>();
+        long previous = 0;
+        // Plus de 4096 ids : la séquence déborde et passe à la milliseconde suivante
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            assertTrue(seen.add(id));
+            previous = id;
+        }
+    }
+
+    @Test
+    void idEncodesCreationTimeAndWorker() {
+        long before = System.currentTimeMillis();
+        long id = SnowflakeIdGenerator.forWorker(7).nextId();
+        long after = System.currentTimeMillis();
+
+        long timestamp = SnowflakeIdGenerator.timestampOf(id);
+        assertTrue(timestamp >= before && timestamp <= after);
+        assertEquals(7, (id >>> SnowflakeIdGenerator.SEQUENCE_BITS) & SnowflakeIdGenerator.MAX_WORKER_ID);
+    }
+
+    @Test
+    void oneGeneratorPerWorker() {
+        assertSame(SnowflakeIdGenerator.forWorker(1), SnowflakeIdGenerator.forWorker(1));
+        assertThrows(IllegalArgumentException.class, () -> SnowflakeIdGenerator.forWorker(SnowflakeIdGenerator.MAX_WORKER_ID + 1));
+    }
+}
@@ -0,0 +1,133 @@
+package com.snapchat.storyservice.common;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Encodage geohash (base 32) et calcul des cellules couvrant une zone.
+ * Deux points proches partagent un préfixe : une zone se traduit en quelques
+ * plages de préfixes, lisibles par un simple index B-tree.
+ */
+public final class Geohash {
+
+    public static final int MAX_PRECISION = 12;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private Geohash() {
+    }
+
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int ch = 0;
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLon = mid;
+                } else {
+                    ch = ch << 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch = ch << 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                hash.append(BASE32[ch]);
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Préfixes geohash couvrant le rectangle donné, à la précision la plus fine qui
+     * reste sous maxCells cellules. Les latitudes sont bornées à [-90, 90] ; une zone qui
+     * déborde de ±180° en longitude continue de l'autre côté de l'antiméridien
+     * (voir {@link #longitudeRanges}), les deux morceaux se partageant maxCells.
+     */
+    public static Set<String> cover(double minLat, double minLon, double maxLat, double maxLon, int maxCells) {
+        minLat = clamp(minLat, -90, 90);
+        maxLat = clamp(maxLat, -90, 90);
+        List<LonRange> ranges = longitudeRanges(minLon, maxLon);
+
+        Set<String> best = Set.of("");
+        for (int precision = 1; precision <= MAX_PRECISION; precision++) {
+            double cellHeight = cellHeight(precision);
+            double cellWidth = cellWidth(precision);
+            long rows = (long) Math.ceil((maxLat - minLat) / cellHeight) + 1;
+            long estimate = 0;
+            for (LonRange range : ranges) {
+                estimate += rows * ((long) Math.ceil((range.max() - range.min()) / cellWidth) + 1);
+            }
+            if (estimate > maxCells) {
+                break;
+            }
+            Set<String> cells = new LinkedHashSet<>();
+            for (LonRange range : ranges) {
+                for (double lat = minLat; ; lat = Math.min(lat + cellHeight, maxLat)) {
+                    for (double lon = range.min(); ; lon = Math.min(lon + cellWidth, range.max())) {
+                        cells.add(encode(lat, lon, precision));
+                        if (lon >= range.max()) break;
+                    }
+                    if (lat >= maxLat) break;
+                }
+            }
+            if (cells.size() > maxCells) {
+                break;
+            }
+            best = cells;
+        }
+        return best;
+    }
+
+    /**
+     * Plages de longitude, dans [-180, 180], équivalentes à [minLon, maxLon] : une seule
+     * en temps normal, deux quand l'intervalle franchit l'antiméridien (minLon < -180 ou
+     * maxLon > 180), le tour complet quand il couvre 360° ou plus.
+     */
+    public static List<LonRange> longitudeRanges(double minLon, double maxLon) {
+        if (maxLon - minLon >= 360) {
+            return List.of(new LonRange(-180, 180));
+        }
+        if (minLon < -180) {
+            return List.of(new LonRange(minLon + 360, 180), new LonRange(-180, maxLon));
+        }
+        if (maxLon > 180) {
+            return List.of(new LonRange(minLon, 180), new LonRange(-180, maxLon - 360));
+        }
+        return List.of(new LonRange(minLon, maxLon));
+    }
+
+    public record LonRange(double min, double max) {
+    }
+
+    static double cellWidth(int precision) {
+        int lonBits = (5 * precision + 1) / 2;
+        return 360.0 / (1L << lonBits);
+    }
+
+    static double cellHeight(int precision) {
+        int latBits = (5 * precision) / 2;
+        return 180.0 / (1L << latBits);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
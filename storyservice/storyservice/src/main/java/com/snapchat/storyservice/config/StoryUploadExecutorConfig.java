@@ -0,0 +1,29 @@
+package com.snapchat.storyservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class StoryUploadExecutorConfig {
+
+    /**
+     * Pool borné dédié aux envois vers le stockage distant. Quand la file est pleine,
+     * submit lève TaskRejectedException au lieu de bloquer un thread Tomcat.
+     */
+    @Bean(name = "storyUploadExecutor")
+    public ThreadPoolTaskExecutor storyUploadExecutor(
+            @Value("${story.upload.pool-size:8}") int poolSize,
+            @Value("${story.upload.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("story-upload-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
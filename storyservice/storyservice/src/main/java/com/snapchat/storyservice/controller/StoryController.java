@@ -1,15 +1,27 @@
 package com.snapchat.storyservice.controller;
 
 import com.snapchat.storyservice.common.ApiResponse;
+import com.snapchat.storyservice.dto.NearbyStoriesPage;
+import com.snapchat.storyservice.dto.StoryFeedPage;
 import com.snapchat.storyservice.dto.StoryUploadRequest;
+import com.snapchat.storyservice.dto.StoryUploadStatus;
+import com.snapchat.storyservice.dto.StoryViewStats;
+import com.snapchat.storyservice.dto.StoryViewer;
 import com.snapchat.storyservice.entity.Story;
 import com.snapchat.storyservice.service.StoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.security.Principal;
 import java.util.List;
 
 @RestController
@@ -21,44 +33,155 @@ public class StoryController {
     @Autowired
     private StoryService storyService;
 
-    // CREATE
+    // CREATE : l'auteur est l'utilisateur authentifié par la gateway (401 sans identité)
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<ApiResponse<Story>> uploadStory(@ModelAttribute StoryUploadRequest request) {
+    public ResponseEntity<ApiResponse<Story>> uploadStory(@ModelAttribute StoryUploadRequest request, Principal principal) {
         try {
             Story story = storyService.uploadStory(
                     request.getFile(),
-                    request.getUserId(),
+                    principal != null ? principal.getName() : null,
                     request.getLatitude(),
                     request.getLongitude()
             );
-            return ResponseEntity.ok(new ApiResponse<>("Story uploaded successfully", story));
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(new ApiResponse<>("Story upload accepted", story));
+        } catch (AuthenticationCredentialsNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>(e.getMessage(), null));
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ApiResponse<>("Too many uploads in progress, retry later", null));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
         }
     }
 
 
-    // UPDATE
+    // UPDATE (auteur seulement : 401 sans identité, 403 sinon)
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<Story>> updateStory(
             @PathVariable Long id,
             @RequestParam("file") MultipartFile file,
             @RequestParam("latitude") double lat,
-            @RequestParam("longitude") double lon) {
+            @RequestParam("longitude") double lon,
+            Principal principal) {
         try {
-            Story updated = storyService.updateStory(id, file, lat, lon);
-            return ResponseEntity.ok(new ApiResponse<>("Story updated successfully", updated));
+            Story updated = storyService.updateStory(id, principal != null ? principal.getName() : null, file, lat, lon);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(new ApiResponse<>("Story update accepted", updated));
+        } catch (AuthenticationCredentialsNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>(e.getMessage(), null));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(new ApiResponse<>(e.getMessage(), null));
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ApiResponse<>("Too many uploads in progress, retry later", null));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
         }
     }
 
-    // GET by ID
+    // GET nearby (rayon en km, pagination par curseur)
+    @GetMapping("/nearby")
+    public ResponseEntity<ApiResponse<NearbyStoriesPage>> getNearbyStories(
+            @RequestParam("latitude") double lat,
+            @RequestParam("longitude") double lon,
+            @RequestParam(value = "radiusKm", defaultValue = "10") double radiusKm,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        try {
+            NearbyStoriesPage page = storyService.getNearbyStories(lat, lon, radiusKm, cursor, size);
+            return ResponseEntity.ok(new ApiResponse<>("Nearby stories retrieved successfully", page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    // GET feed : stories des amis, un anneau par auteur, pour l'utilisateur authentifié par la gateway
+    @GetMapping("/feed")
+    public ResponseEntity<ApiResponse<StoryFeedPage>> getFeed(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            Principal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ApiResponse<>("Authentication is required to read the feed", null));
+        }
+        try {
+            StoryFeedPage page = storyService.getFeed(principal.getName(), cursor, size);
+            // Propre à l'utilisateur (amis, stories vues) : jamais dans le cache partagé de la gateway
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    .body(new ApiResponse<>("Feed retrieved successfully", page));
+        } catch (RestClientException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ApiResponse<>("Friend list unavailable, retry later", null));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    // GET stories actives d'un utilisateur
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<ApiResponse<List<Story>>> getActiveStoriesByUser(@PathVariable String userId) {
+        List<Story> stories = storyService.getActiveStoriesByUser(userId);
+        return ResponseEntity.ok(new ApiResponse<>("User stories retrieved successfully", stories));
+    }
+
+    // GET by ID : compte une vue de l'utilisateur authentifié par la gateway (aucune si anonyme), sans écriture en base
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<Story>> getStory(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<Story>> getStory(@PathVariable Long id, Principal principal) {
+        try {
+            Story story = storyService.viewStory(id, principal != null ? principal.getName() : null);
+            // Pas de cache partagé à la gateway : chaque lecture doit arriver ici pour être comptée
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    .body(new ApiResponse<>("Story retrieved successfully", story));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    // GET nombre de vues et de lecteurs distincts
+    @GetMapping("/{id}/views")
+    public ResponseEntity<ApiResponse<StoryViewStats>> getViewStats(@PathVariable Long id) {
+        try {
+            StoryViewStats stats = storyService.getViewStats(id);
+            // Statistiques de l'auteur : ni cache partagé ni stockage côté client
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore().cachePrivate())
+                    .body(new ApiResponse<>("Story views retrieved", stats));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    // GET lecteurs d'une story, les plus récents d'abord (auteur seulement : 401 sans identité, 403 sinon)
+    @GetMapping("/{id}/viewers")
+    public ResponseEntity<ApiResponse<List<StoryViewer>>> getViewers(
+            @PathVariable Long id,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "50") int size,
+            Principal principal) {
+        try {
+            List<StoryViewer> viewers = storyService.getViewers(id, principal != null ? principal.getName() : null, page, size);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore().cachePrivate())
+                    .body(new ApiResponse<>("Story viewers retrieved", viewers));
+        } catch (AuthenticationCredentialsNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>(e.getMessage(), null));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(new ApiResponse<>(e.getMessage(), null));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    // GET upload status (PENDING / READY / FAILED)
+    @GetMapping("/{id}/status")
+    public ResponseEntity<ApiResponse<StoryUploadStatus>> getUploadStatus(@PathVariable Long id) {
         try {
-            Story story = storyService.getStory(id);
-            return ResponseEntity.ok(new ApiResponse<>("Story retrieved successfully", story));
+            Story story = storyService.getUploadStatus(id);
+            return ResponseEntity.ok(new ApiResponse<>("Story status retrieved", StoryUploadStatus.of(story)));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
         }
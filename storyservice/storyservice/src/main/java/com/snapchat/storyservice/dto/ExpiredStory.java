@@ -0,0 +1,7 @@
+package com.snapchat.storyservice.dto;
+
+/**
+ * Le strict nécessaire pour purger une story expirée et son média.
+ */
+public record ExpiredStory(Long id, String userId, String mediaKey) {
+}
@@ -0,0 +1,15 @@
+package com.snapchat.storyservice.dto;
+
+import com.snapchat.storyservice.entity.Story;
+
+import java.util.List;
+
+/**
+ * Stories proches, de la plus récente à la plus ancienne. nextCursor vaut null en fin de liste ;
+ * une page peut contenir moins d'éléments que demandé sans pour autant être la dernière.
+ */
+public record NearbyStoriesPage(
+        List<Story> stories,
+        String nextCursor
+) {
+}
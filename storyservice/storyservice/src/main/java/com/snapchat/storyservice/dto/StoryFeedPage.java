@@ -0,0 +1,12 @@
+package com.snapchat.storyservice.dto;
+
+import java.util.List;
+
+/**
+ * Anneaux de stories des amis, l'auteur le plus récemment publié d'abord. nextCursor vaut null en fin de liste.
+ */
+public record StoryFeedPage(
+        List<StoryRing> rings,
+        String nextCursor
+) {
+}
@@ -0,0 +1,31 @@
+package com.snapchat.storyservice.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.snapchat.storyservice.entity.Story;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Stories actives d'un auteur, de la plus ancienne à la plus récente (ordre de lecture).
+ * seenStoryIds : celles déjà vues par le lecteur du feed ; allSeen si l'anneau est entièrement vu.
+ */
+public record StoryRing(
+        String userId,
+        List<Story> stories,
+        @JsonSerialize(contentUsing = ToStringSerializer.class) List<Long> seenStoryIds,
+        boolean allSeen
+) {
+    public StoryRing(String userId, List<Story> stories) {
+        this(userId, stories, List.of(), false);
+    }
+
+    public StoryRing withSeen(Set<Long> seen) {
+        List<Long> seenHere = stories.stream()
+                .map(Story::getId)
+                .filter(seen::contains)
+                .toList();
+        return new StoryRing(userId, stories, seenHere, !stories.isEmpty() && seenHere.size() == stories.size());
+    }
+}
@@ -2,21 +2,13 @@ package com.snapchat.storyservice.dto;
 
 import org.springframework.web.multipart.MultipartFile;
 
+// L'auteur n'est pas un champ du formulaire : il vient de l'identité transmise par la gateway
 public class StoryUploadRequest {
-    private String userId;
     private double latitude;
     private double longitude;
     private MultipartFile file;
 
     // Getters and setters
-    public String getUserId() {
-        return userId;
-    }
-
-    public void setUserId(String userId) {
-        this.userId = userId;
-    }
-
     public double getLatitude() {
         return latitude;
     }
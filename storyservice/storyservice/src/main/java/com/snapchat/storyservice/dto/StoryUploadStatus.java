@@ -0,0 +1,19 @@
+package com.snapchat.storyservice.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.snapchat.storyservice.entity.Story;
+import com.snapchat.storyservice.entity.StoryStatus;
+
+public record StoryUploadStatus(
+        @JsonSerialize(using = ToStringSerializer.class) Long id,
+        StoryStatus status,
+        String mediaUrl,
+        // État du dernier remplacement de média (PENDING, FAILED), null s'il n'y en a pas en cours
+        StoryStatus updateStatus
+) {
+    public static StoryUploadStatus of(Story story) {
+        StoryStatus status = story.getStatus() == null ? StoryStatus.READY : story.getStatus();
+        return new StoryUploadStatus(story.getId(), status, story.getMediaUrl(), story.getUpdateStatus());
+    }
+}
@@ -0,0 +1,14 @@
+package com.snapchat.storyservice.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
+/**
+ * views inclut les vues pas encore écrites en base ; viewers (distincts) peut avoir un flush de retard.
+ */
+public record StoryViewStats(
+        @JsonSerialize(using = ToStringSerializer.class) Long storyId,
+        long views,
+        long viewers
+) {
+}
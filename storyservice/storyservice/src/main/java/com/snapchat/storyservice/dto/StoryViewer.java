@@ -0,0 +1,9 @@
+package com.snapchat.storyservice.dto;
+
+import java.time.LocalDateTime;
+
+public record StoryViewer(
+        String viewerId,
+        LocalDateTime viewedAt
+) {
+}
@@ -1,14 +1,24 @@
 package com.snapchat.storyservice.entity;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.snapchat.storyservice.common.Geohash;
+import com.snapchat.ids.SnowflakeId;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "stories")
+@Table(name = "stories", indexes = {
+        @Index(name = "idx_story_geohash", columnList = "geohash, id"),
+        @Index(name = "idx_story_user_expires", columnList = "user_id, expires_at"),
+        @Index(name = "idx_story_expires", columnList = "expires_at"),
+        @Index(name = "idx_story_media_key", columnList = "media_key")
+})
 public class Story {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
+    @JsonSerialize(using = ToStringSerializer.class) // 64 bits : dépasse Number.MAX_SAFE_INTEGER côté JavaScript
     private Long id;
 
     private String userId;
@@ -17,14 +27,35 @@ public class Story {
 
     private String mediaType;
 
+    // Clé du média dans le MediaStore, nécessaire pour le supprimer
+    private String mediaKey;
+
     private double latitude;
 
     private double longitude;
 
+    // Recalculé à chaque écriture depuis latitude/longitude, sert de clé d'index spatial
+    @Column(length = Geohash.MAX_PRECISION)
+    private String geohash;
+
     private LocalDateTime createdAt;
 
     private LocalDateTime expiresAt;
 
+    // null pour les stories créées avant l'upload asynchrone : elles sont considérées comme prêtes
+    @Enumerated(EnumType.STRING)
+    private StoryStatus status;
+
+    // Remplacement du média : PENDING pendant l'envoi, FAILED s'il a échoué, null sinon
+    @Enumerated(EnumType.STRING)
+    private StoryStatus updateStatus;
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        this.geohash = Geohash.encode(latitude, longitude, Geohash.MAX_PRECISION);
+    }
+
     // ======= Getters & Setters =======
 
     public Long getId() {
@@ -59,6 +90,14 @@ public class Story {
         this.mediaType = mediaType;
     }
 
+    public String getMediaKey() {
+        return mediaKey;
+    }
+
+    public void setMediaKey(String mediaKey) {
+        this.mediaKey = mediaKey;
+    }
+
     public double getLatitude() {
         return latitude;
     }
@@ -75,6 +114,10 @@ public class Story {
         this.longitude = longitude;
     }
 
+    public String getGeohash() {
+        return geohash;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -90,4 +133,20 @@ public class Story {
     public void setExpiresAt(LocalDateTime expiresAt) {
         this.expiresAt = expiresAt;
     }
+
+    public StoryStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(StoryStatus status) {
+        this.status = status;
+    }
+
+    public StoryStatus getUpdateStatus() {
+        return updateStatus;
+    }
+
+    public void setUpdateStatus(StoryStatus updateStatus) {
+        this.updateStatus = updateStatus;
+    }
 }
@@ -0,0 +1,7 @@
+package com.snapchat.storyservice.entity;
+
+public enum StoryStatus {
+    PENDING, // média en cours d'envoi, story invisible
+    READY,
+    FAILED
+}
@@ -0,0 +1,68 @@
+package com.snapchat.storyservice.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Première vue d'une story par un utilisateur ; écrite par lots par StoryViewTracker.
+ */
+@Entity
+@Table(name = "story_views", indexes = {
+        // Stories déjà vues par un utilisateur, pour marquer son feed
+        @Index(name = "idx_story_view_viewer", columnList = "viewer_id, story_id"),
+        @Index(name = "idx_story_view_story_time", columnList = "story_id, viewed_at")
+})
+@IdClass(StoryView.Key.class)
+public class StoryView {
+
+    @Id
+    @Column(name = "story_id")
+    private Long storyId;
+
+    @Id
+    @Column(name = "viewer_id", length = 64)
+    private String viewerId;
+
+    @Column(name = "viewed_at", nullable = false)
+    private LocalDateTime viewedAt;
+
+    public Long getStoryId() {
+        return storyId;
+    }
+
+    public String getViewerId() {
+        return viewerId;
+    }
+
+    public LocalDateTime getViewedAt() {
+        return viewedAt;
+    }
+
+    public static class Key implements Serializable {
+        private Long storyId;
+        private String viewerId;
+
+        public Key() {
+        }
+
+        public Key(Long storyId, String viewerId) {
+            this.storyId = storyId;
+            this.viewerId = viewerId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(storyId, key.storyId) && Objects.equals(viewerId, key.viewerId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(storyId, viewerId);
+        }
+    }
+}
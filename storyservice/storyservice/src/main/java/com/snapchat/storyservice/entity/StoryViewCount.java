@@ -0,0 +1,26 @@
+package com.snapchat.storyservice.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Nombre total de vues d'une story, incrémenté par upsert groupé (une ligne par story et par flush).
+ */
+@Entity
+@Table(name = "story_view_counts")
+public class StoryViewCount {
+
+    @Id
+    @Column(name = "story_id")
+    private Long storyId;
+
+    @Column(nullable = false)
+    private long views;
+
+    public Long getStoryId() {
+        return storyId;
+    }
+
+    public long getViews() {
+        return views;
+    }
+}
@@ -1,11 +1,57 @@
 package com.snapchat.storyservice.repo;
 
+import com.snapchat.storyservice.dto.ExpiredStory;
 import com.snapchat.storyservice.entity.Story;
+import com.snapchat.storyservice.entity.StoryStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
-public interface StoryRepository extends JpaRepository<Story, Long> {
+public interface StoryRepository extends JpaRepository<Story, Long>, JpaSpecificationExecutor<Story> {
     List<Story> findByExpiresAtAfter(LocalDateTime now);
+
+    // Les stories sans statut datent d'avant l'upload asynchrone et sont visibles
+    List<Story> findByStatusIsNullOrStatus(StoryStatus status);
+
+    @Query("""
+            select s from Story s
+            where s.userId = :userId
+              and s.expiresAt > :now
+              and (s.status is null or s.status = :status)
+            order by s.id desc
+            """)
+    List<Story> findActiveByUser(@Param("userId") String userId,
+                                 @Param("now") LocalDateTime now,
+                                 @Param("status") StoryStatus status);
+
+    // Timeline d'un utilisateur : stories actives de ses amis, les plus récentes d'abord
+    @Query("""
+            select s from Story s
+            where s.userId in :userIds
+              and s.expiresAt > :now
+              and (s.status is null or s.status = :status)
+            order by s.expiresAt desc
+            """)
+    List<Story> findActiveByUsers(@Param("userIds") Collection<String> userIds,
+                                  @Param("now") LocalDateTime now,
+                                  @Param("status") StoryStatus status,
+                                  Pageable pageable);
+
+    @Query("""
+            select new com.snapchat.storyservice.dto.ExpiredStory(s.id, s.userId, s.mediaKey)
+            from Story s
+            where s.expiresAt < :now
+            order by s.expiresAt
+            """)
+    List<ExpiredStory> findExpired(@Param("now") LocalDateTime now, Pageable pageable);
+
+    long countByExpiresAtBefore(LocalDateTime now);
+
+    boolean existsByMediaKey(String mediaKey);
 }
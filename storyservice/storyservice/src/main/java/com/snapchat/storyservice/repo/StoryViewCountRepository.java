@@ -0,0 +1,7 @@
+package com.snapchat.storyservice.repo;
+
+import com.snapchat.storyservice.entity.StoryViewCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface StoryViewCountRepository extends JpaRepository<StoryViewCount, Long> {
+}
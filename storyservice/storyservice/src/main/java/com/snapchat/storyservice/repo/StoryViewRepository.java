@@ -0,0 +1,27 @@
+package com.snapchat.storyservice.repo;
+
+import com.snapchat.storyservice.dto.StoryViewer;
+import com.snapchat.storyservice.entity.StoryView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface StoryViewRepository extends JpaRepository<StoryView, StoryView.Key> {
+
+    @Query("""
+            select new com.snapchat.storyservice.dto.StoryViewer(v.viewerId, v.viewedAt)
+            from StoryView v
+            where v.storyId = :storyId
+            order by v.viewedAt desc
+            """)
+    List<StoryViewer> findViewers(@Param("storyId") Long storyId, Pageable pageable);
+
+    long countByStoryId(Long storyId);
+
+    @Query("select v.storyId from StoryView v where v.viewerId = :viewerId and v.storyId in :storyIds")
+    List<Long> findSeenStoryIds(@Param("viewerId") String viewerId, @Param("storyIds") Collection<Long> storyIds);
+}
@@ -1,7 +1,8 @@
 package com.snapchat.storyservice.security;
 
-import lombok.RequiredArgsConstructor;
+import com.snapchat.identity.IdentityHeader;
 import org.apache.catalina.filters.CorsFilter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -15,6 +16,7 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -25,13 +27,21 @@ import java.util.List;
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
-@RequiredArgsConstructor
 public class SecurityConfig {
 
+    // Vérifie l'en-tête de la gateway et signe celui des appels à userservice
+    @Bean
+    public IdentityHeader identityHeader(@Value("${app.identity.secret}") String identitySecret) {
+        return new IdentityHeader(identitySecret);
+    }
+
 
     @Bean
-    SecurityFilterChain openSecurityFilterChain(HttpSecurity httpSecurity) throws Exception {
+    SecurityFilterChain openSecurityFilterChain(HttpSecurity httpSecurity, IdentityHeader identityHeader) throws Exception {
+        // Les routes restent ouvertes (le client mobile appelle encore les services en direct),
+        // mais une requête venant de la gateway porte l'identité vérifiée
         httpSecurity.csrf(AbstractHttpConfigurer::disable)
+                .addFilterBefore(new GatewayIdentityFilter(identityHeader), UsernamePasswordAuthenticationFilter.class)
                 .authorizeHttpRequests(auth -> auth
                         .anyRequest().permitAll()
                 );
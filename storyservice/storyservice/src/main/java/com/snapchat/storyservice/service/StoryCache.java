@@ -0,0 +1,148 @@
+package com.snapchat.storyservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.snapchat.storyservice.entity.Story;
+import com.snapchat.storyservice.entity.StoryStatus;
+import com.snapchat.storyservice.repo.StoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Cache en lecture des stories actives, par id et par utilisateur.
+ * <p>
+ * Une story ne change plus après publication et disparaît à son expiresAt : chaque entrée
+ * expire donc à l'expiresAt de la story (ou de la plus ancienne story de la liste pour
+ * l'index par utilisateur) au lieu d'un TTL global. Les écritures de StoryService invalident
+ * les entrées concernées. La liste complète n'a pas d'échéance naturelle (elle contient
+ * aussi les stories expirées) : elle est gardée au plus story.cache.all-ttl.
+ * Statistiques exposées dans /actuator/metrics (cache.gets, cache.evictions...).
+ */
+@Component
+public class StoryCache {
+
+    private static final String ALL_KEY = "all";
+
+    private final StoryRepository storyRepository;
+    private final Cache<Long, Story> byId;
+    private final Cache<String, List<Story>> byUser;
+    private final Cache<String, List<Story>> all;
+
+    public StoryCache(StoryRepository storyRepository,
+                      MeterRegistry meterRegistry,
+                      @Value("${story.cache.max-stories:100000}") long maxStories,
+                      @Value("${story.cache.max-users:50000}") long maxUsers,
+                      @Value("${story.cache.empty-user-ttl:PT5M}") Duration emptyUserTtl,
+                      @Value("${story.cache.all-ttl:PT30S}") Duration allTtl) {
+        this.storyRepository = storyRepository;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxStories)
+                .expireAfter(new UntilExpiresAt<Long, Story>(story -> Optional.ofNullable(story.getExpiresAt()), Duration.ZERO))
+                .recordStats()
+                .build();
+        this.byUser = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfter(new UntilExpiresAt<String, List<Story>>(StoryCache::earliestExpiry, emptyUserTtl))
+                .recordStats()
+                .build();
+        this.all = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(allTtl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "stories.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, byUser, "stories.by-user");
+        CaffeineCacheMetrics.monitor(meterRegistry, all, "stories.all");
+    }
+
+    /**
+     * Story visible (prête) par id, vide si absente ou encore en cours d'envoi.
+     */
+    public Optional<Story> get(Long id) {
+        return Optional.ofNullable(byId.get(id, key -> storyRepository.findById(key)
+                .filter(StoryCache::isVisible)
+                .orElse(null)));
+    }
+
+    public List<Story> getActiveByUser(String userId) {
+        return byUser.get(userId, key -> {
+            List<Story> stories = storyRepository.findActiveByUser(key, LocalDateTime.now(), StoryStatus.READY);
+            stories.forEach(story -> byId.put(story.getId(), story));
+            return List.copyOf(stories);
+        });
+    }
+
+    public List<Story> getAll(Function<String, List<Story>> loader) {
+        return all.get(ALL_KEY, loader);
+    }
+
+    public void evict(Story story) {
+        byId.invalidate(story.getId());
+        if (story.getUserId() != null) {
+            byUser.invalidate(story.getUserId());
+        }
+        all.invalidateAll();
+    }
+
+    /**
+     * Après une purge : les entrées par utilisateur expirent déjà d'elles-mêmes.
+     */
+    public void evictPurged(Collection<Long> ids) {
+        byId.invalidateAll(ids);
+        all.invalidateAll();
+    }
+
+    static boolean isVisible(Story story) {
+        return story.getStatus() == null || story.getStatus() == StoryStatus.READY;
+    }
+
+    private static Optional<LocalDateTime> earliestExpiry(List<Story> stories) {
+        return stories.stream()
+                .map(Story::getExpiresAt)
+                .filter(expiresAt -> expiresAt != null)
+                .min(LocalDateTime::compareTo);
+    }
+
+    /**
+     * Expire chaque entrée à l'échéance calculée depuis sa valeur ; fallback si aucune échéance.
+     * Une relecture ou une mise à jour recalcule l'échéance à partir de la nouvelle valeur.
+     */
+    private static final class UntilExpiresAt<K, V> implements Expiry<K, V> {
+        private final Function<V, Optional<LocalDateTime>> deadline;
+        private final Duration fallback;
+
+        private UntilExpiresAt(Function<V, Optional<LocalDateTime>> deadline, Duration fallback) {
+            this.deadline = deadline;
+            this.fallback = fallback;
+        }
+
+        @Override
+        public long expireAfterCreate(K key, V value, long currentTime) {
+            Duration ttl = deadline.apply(value)
+                    .map(expiresAt -> Duration.between(LocalDateTime.now(), expiresAt))
+                    .orElse(fallback);
+            return ttl.isNegative() ? 0 : ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
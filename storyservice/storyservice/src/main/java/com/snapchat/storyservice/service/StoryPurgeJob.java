@@ -0,0 +1,173 @@
+package com.snapchat.storyservice.service;
+
+import com.snapchat.storyservice.dto.ExpiredStory;
+import com.snapchat.storyservice.repo.StoryRepository;
+import com.snapchat.storyservice.service.feed.TimelineStore;
+import com.snapchat.storyservice.service.media.MediaStore;
+import com.snapchat.storyservice.service.views.StoryViewTracker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Purge périodique des stories expirées.
+ * <p>
+ * Les lignes sont supprimées par lots de story.purge.batch-size (lecture par l'index
+ * expires_at, puis DELETE ... WHERE id IN), avec une pause entre deux lots et un nombre
+ * maximum de lots par passage pour ne jamais concurrencer le trafic. Les médias sont
+ * supprimés ensuite, hors transaction, sur un pool à un thread avec nouvelles tentatives
+ * espacées. Métriques : stories.purge.deleted, stories.purge.media.deleted,
+ * stories.purge.media.failed, stories.purge.backlog, stories.purge.media.pending.
+ */
+@Component
+public class StoryPurgeJob {
+
+    private static final Logger log = LoggerFactory.getLogger(StoryPurgeJob.class);
+
+    private final StoryRepository storyRepository;
+    private final StoryCache storyCache;
+    private final MediaStore mediaStore;
+    private final TimelineStore timelineStore;
+    private final StoryViewTracker storyViewTracker;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration pauseBetweenBatches;
+    private final int mediaMaxAttempts;
+    private final Duration mediaRetryDelay;
+
+    private final ScheduledThreadPoolExecutor mediaDeleter = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread thread = new Thread(r, "story-media-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong backlog = new AtomicLong();
+    private final Counter deletedStories;
+    private final Counter deletedMedia;
+    private final Counter failedMedia;
+
+    public StoryPurgeJob(StoryRepository storyRepository,
+                         StoryCache storyCache,
+                         MediaStore mediaStore,
+                         TimelineStore timelineStore,
+                         StoryViewTracker storyViewTracker,
+                         MeterRegistry meterRegistry,
+                         @Value("${story.purge.batch-size:500}") int batchSize,
+                         @Value("${story.purge.max-batches-per-run:20}") int maxBatchesPerRun,
+                         @Value("${story.purge.pause-between-batches:PT0.2S}") Duration pauseBetweenBatches,
+                         @Value("${story.purge.media-max-attempts:5}") int mediaMaxAttempts,
+                         @Value("${story.purge.media-retry-delay:PT30S}") Duration mediaRetryDelay) {
+        this.storyRepository = storyRepository;
+        this.storyCache = storyCache;
+        this.mediaStore = mediaStore;
+        this.timelineStore = timelineStore;
+        this.storyViewTracker = storyViewTracker;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.pauseBetweenBatches = pauseBetweenBatches;
+        this.mediaMaxAttempts = mediaMaxAttempts;
+        this.mediaRetryDelay = mediaRetryDelay;
+
+        this.deletedStories = meterRegistry.counter("stories.purge.deleted");
+        this.deletedMedia = meterRegistry.counter("stories.purge.media.deleted");
+        this.failedMedia = meterRegistry.counter("stories.purge.media.failed");
+        Gauge.builder("stories.purge.backlog", backlog, AtomicLong::get)
+                .description("Expired stories still waiting to be purged")
+                .register(meterRegistry);
+        Gauge.builder("stories.purge.media.pending", mediaDeleter, executor -> executor.getQueue().size())
+                .description("Media deletions waiting or scheduled for retry")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${story.purge.interval:PT1M}", initialDelayString = "${story.purge.initial-delay:PT1M}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int batches = 0;
+        long purged = 0;
+        while (batches < maxBatchesPerRun) {
+            List<ExpiredStory> expired = storyRepository.findExpired(now, PageRequest.of(0, batchSize));
+            if (expired.isEmpty()) {
+                break;
+            }
+            List<Long> ids = expired.stream().map(ExpiredStory::id).toList();
+            storyRepository.deleteAllByIdInBatch(ids);
+            storyCache.evictPurged(ids);
+            storyViewTracker.forget(ids);
+            deletedStories.increment(ids.size());
+            purged += ids.size();
+            batches++;
+
+            expired.stream()
+                    .map(ExpiredStory::mediaKey)
+                    .filter(key -> key != null)
+                    .distinct()
+                    .forEach(key -> scheduleMediaDelete(key, 1, Duration.ZERO));
+
+            if (expired.size() < batchSize || !pause()) {
+                break;
+            }
+        }
+        timelineStore.trimExpired();
+        backlog.set(storyRepository.countByExpiresAtBefore(now));
+        if (purged > 0) {
+            log.info("Purged {} expired stories in {} batches, backlog {}", purged, batches, backlog.get());
+        }
+    }
+
+    /**
+     * Média remplacé par une mise à jour : supprimé comme ceux des stories purgées,
+     * s'il ne sert plus à aucune story.
+     */
+    public void scheduleMediaDelete(String key) {
+        scheduleMediaDelete(key, 1, Duration.ZERO);
+    }
+
+    private void scheduleMediaDelete(String key, int attempt, Duration delay) {
+        mediaDeleter.schedule(() -> deleteMedia(key, attempt), delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void deleteMedia(String key, int attempt) {
+        try {
+            // Stockage adressé par contenu : le même média peut encore servir à une autre story
+            if (!storyRepository.existsByMediaKey(key)) {
+                mediaStore.delete(key);
+            }
+            deletedMedia.increment();
+        } catch (Exception e) {
+            if (attempt >= mediaMaxAttempts) {
+                failedMedia.increment();
+                log.warn("Giving up deleting media {} after {} attempts: {}", key, attempt, e.getMessage());
+                return;
+            }
+            scheduleMediaDelete(key, attempt + 1, mediaRetryDelay.multipliedBy(1L << (attempt - 1)));
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseBetweenBatches.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        mediaDeleter.shutdown();
+    }
+}
@@ -1,97 +1,364 @@
 package com.snapchat.storyservice.service;
 
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
+import com.snapchat.storyservice.common.Geohash;
+import com.snapchat.storyservice.dto.NearbyStoriesPage;
+import com.snapchat.storyservice.dto.StoryFeedPage;
+import com.snapchat.storyservice.dto.StoryRing;
+import com.snapchat.storyservice.dto.StoryViewStats;
+import com.snapchat.storyservice.dto.StoryViewer;
 import com.snapchat.storyservice.entity.Story;
+import com.snapchat.storyservice.entity.StoryStatus;
 import com.snapchat.storyservice.repo.StoryRepository;
+import com.snapchat.storyservice.service.feed.TimelineStore;
+import com.snapchat.storyservice.service.media.MediaStore;
+import com.snapchat.storyservice.service.views.StoryViewTracker;
+import com.snapchat.storyservice.service.media.StoredMedia;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import jakarta.persistence.criteria.Predicate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.UUID;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 @Service
 public class StoryService {
 
-
+    private static final Logger log = LoggerFactory.getLogger(StoryService.class);
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = 111.32;
+    static final double MAX_NEARBY_RADIUS_KM = 50;
+    static final int MAX_NEARBY_PAGE_SIZE = 100;
+    static final int MAX_FEED_PAGE_SIZE = 50;
+    static final int MAX_VIEWERS_PAGE_SIZE = 100;
+    private static final int MAX_COVER_CELLS = 16;
+    private static final Pattern EXTENSION_PATTERN = Pattern.compile("\\.[a-z0-9]{1,8}");
 
     @Autowired
     private StoryRepository storyRepository;
 
     @Autowired
-    private Cloudinary cloudinary;
+    private MediaStore mediaStore;
+
+    @Autowired
+    private StoryCache storyCache;
+
+    @Autowired
+    private TimelineStore timelineStore;
+
+    @Autowired
+    private StoryViewTracker storyViewTracker;
+
+    @Autowired
+    private StoryPurgeJob storyPurgeJob;
+
+    @Autowired
+    @Qualifier("storyUploadExecutor")
+    private ThreadPoolTaskExecutor uploadExecutor;
 
 
+    /**
+     * Enregistre la story en PENDING et rend la main tout de suite : le fichier est
+     * copié sur disque sans passer par le heap, puis envoyé au stockage sur le pool
+     * storyUploadExecutor. La story devient visible une fois le média enregistré.
+     */
+    /**
+     * userId est l'utilisateur authentifié par la gateway : une story ne peut pas être
+     * publiée au nom d'un autre.
+     */
     public Story uploadStory(MultipartFile file, String userId, double latitude, double longitude) {
+        if (userId == null) {
+            throw new AuthenticationCredentialsNotFoundException("Authentication is required to post a story");
+        }
+        Path spooled = spool(file);
+        String contentType = file.getContentType();
+
+        Story story = new Story();
+        story.setUserId(userId);
+        story.setLatitude(latitude);
+        story.setLongitude(longitude);
+        story.setCreatedAt(LocalDateTime.now());
+        story.setExpiresAt(LocalDateTime.now().plusHours(24));
+        story.setStatus(StoryStatus.PENDING);
+        Story pending = storyRepository.save(story);
+
         try {
-            Map uploadResult = cloudinary.uploader().upload(file.getBytes(),
-                    ObjectUtils.asMap(
-                            "resource_type", "auto",
-                            "public_id", "story_" + UUID.randomUUID()
-                    ));
-
-            String mediaUrl = (String) uploadResult.get("secure_url");
-            String mediaType = (String) uploadResult.get("resource_type");
-
-            Story story = new Story();
-            story.setUserId(userId);
-            story.setMediaUrl(mediaUrl);
-            story.setMediaType(mediaType);
-            story.setLatitude(latitude);
-            story.setLongitude(longitude);
-            story.setCreatedAt(LocalDateTime.now());
-            story.setExpiresAt(LocalDateTime.now().plusHours(24));
-
-            return storyRepository.save(story);
-        } catch (IOException e) {
-            throw new RuntimeException("Cloudinary upload failed: " + e.getMessage());
+            uploadExecutor.execute(() -> commitMedia(pending.getId(), spooled, contentType));
+        } catch (TaskRejectedException e) {
+            storyRepository.delete(pending);
+            deleteQuietly(spooled);
+            throw e;
         }
+        return pending;
     }
 
-    public Story updateStory(Long id, MultipartFile file, double latitude, double longitude) {
+    /**
+     * Met à jour la position immédiatement ; le nouveau média remplace l'ancien
+     * seulement quand son envoi a réussi, l'ancien reste visible en attendant.
+     * updateStatus suit l'envoi (PENDING, puis null ou FAILED) ; l'ancien média est
+     * supprimé du stockage une fois remplacé. Seul l'auteur peut modifier sa story.
+     */
+    public Story updateStory(Long id, String requesterId, MultipartFile file, double latitude, double longitude) {
+        if (requesterId == null) {
+            throw new AuthenticationCredentialsNotFoundException("Authentication is required to update a story");
+        }
         Story existing = storyRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Story not found"));
+        if (!requesterId.equals(existing.getUserId())) {
+            throw new AccessDeniedException("Only the author can update a story");
+        }
+
+        Path spooled = spool(file);
+        String contentType = file.getContentType();
+        existing.setLatitude(latitude);
+        existing.setLongitude(longitude);
+        existing.setUpdateStatus(StoryStatus.PENDING);
+        Story saved = storyRepository.save(existing);
+        storyCache.evict(saved);
 
         try {
-            // Upload vers Cloudinary
-            Map uploadResult = cloudinary.uploader().upload(file.getBytes(),
-                    ObjectUtils.asMap(
-                            "resource_type", "auto", // auto-détection image/vidéo
-                            "public_id", "story_" + UUID.randomUUID()
-                    ));
-
-            String mediaUrl = (String) uploadResult.get("secure_url");
-            String mediaType = (String) uploadResult.get("resource_type");
-
-            // Mise à jour des champs
-            existing.setMediaUrl(mediaUrl);
-            existing.setMediaType(mediaType);
-            existing.setLatitude(latitude);
-            existing.setLongitude(longitude);
-            existing.setCreatedAt(LocalDateTime.now());
-            existing.setExpiresAt(LocalDateTime.now().plusHours(24));
-
-            return storyRepository.save(existing);
-        } catch (IOException e) {
-            throw new RuntimeException("Cloudinary upload failed: " + e.getMessage());
+            uploadExecutor.execute(() -> commitMedia(saved.getId(), spooled, contentType));
+        } catch (TaskRejectedException e) {
+            saved.setUpdateStatus(null);
+            storyRepository.save(saved);
+            deleteQuietly(spooled);
+            throw e;
         }
+        return saved;
     }
 
 
     public Story getStory(Long id) {
+        return storyCache.get(id)
+                .orElseThrow(() -> new RuntimeException("Story not found"));
+    }
+
+    /**
+     * Lecture d'une story par viewerId (utilisateur authentifié par la gateway) : la vue est
+     * seulement comptée en mémoire, l'écriture en base est faite plus tard par lots. Les vues
+     * de l'auteur et les lectures anonymes (viewerId null) ne sont pas comptées.
+     */
+    public Story viewStory(Long id, String viewerId) {
+        Story story = getStory(id);
+        if (viewerId != null && !viewerId.equals(story.getUserId())) {
+            storyViewTracker.record(story.getId(), viewerId);
+        }
+        return story;
+    }
+
+    public StoryViewStats getViewStats(Long id) {
+        Story story = getUploadStatus(id);
+        return storyViewTracker.stats(story.getId());
+    }
+
+    // Réservé à l'auteur authentifié par la gateway
+    public List<StoryViewer> getViewers(Long id, String requesterId, int page, int size) {
+        if (requesterId == null) {
+            throw new AuthenticationCredentialsNotFoundException("Authentication is required to see who viewed a story");
+        }
+        Story story = getUploadStatus(id);
+        if (!requesterId.equals(story.getUserId())) {
+            throw new AccessDeniedException("Only the author can see who viewed a story");
+        }
+        int pageSize = Math.min(Math.max(size, 1), MAX_VIEWERS_PAGE_SIZE);
+        return storyViewTracker.viewers(story.getId(), Math.max(page, 0), pageSize);
+    }
+
+    public List<Story> getActiveStoriesByUser(String userId) {
+        return storyCache.getActiveByUser(userId);
+    }
+
+    public Story getUploadStatus(Long id) {
         return storyRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Story not found"));
     }
 
+    /**
+     * Stories actives des amis de l'utilisateur, regroupées par auteur, servies depuis sa
+     * timeline précalculée : le coût d'une page dépend de sa taille, pas du nombre de stories.
+     */
+    public StoryFeedPage getFeed(String userId, String cursor, int size) {
+        if (userId == null || userId.isBlank()) {
+            throw new IllegalArgumentException("User is required");
+        }
+        int pageSize = Math.min(Math.max(size, 1), MAX_FEED_PAGE_SIZE);
+        StoryFeedPage page = timelineStore.page(userId, cursor, pageSize);
+        // Une seule requête pour toute la page, sur l'index (viewer_id, story_id)
+        List<Long> storyIds = page.rings().stream()
+                .flatMap(ring -> ring.stories().stream())
+                .map(Story::getId)
+                .toList();
+        Set<Long> seen = storyViewTracker.seenAmong(userId, storyIds);
+        List<StoryRing> rings = page.rings().stream().map(ring -> ring.withSeen(seen)).toList();
+        return new StoryFeedPage(rings, page.nextCursor());
+    }
+
     public List<Story> getAllStories() {
-        return storyRepository.findAll();
+        return storyCache.getAll(key -> storyRepository.findByStatusIsNullOrStatus(StoryStatus.READY));
+    }
+
+    /**
+     * Stories actives dans un rayon autour d'un point, les plus récentes d'abord.
+     * La zone est couverte par au plus 16 préfixes geohash, chacun lu par une plage
+     * de l'index (geohash, id) : le coût dépend du nombre de stories dans la zone,
+     * pas du total. Le filtre exact par distance est fait ensuite en mémoire.
+     */
+    public NearbyStoriesPage getNearbyStories(double latitude, double longitude, double radiusKm,
+                                              String cursor, int size) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Invalid coordinates");
+        }
+        if (radiusKm <= 0 || radiusKm > MAX_NEARBY_RADIUS_KM) {
+            throw new IllegalArgumentException("Radius must be between 0 and " + MAX_NEARBY_RADIUS_KM + " km");
+        }
+        int pageSize = Math.min(Math.max(size, 1), MAX_NEARBY_PAGE_SIZE);
+        Long beforeId = cursor == null || cursor.isBlank() ? null : parseCursor(cursor);
+
+        double deltaLat = radiusKm / KM_PER_DEGREE;
+        double deltaLon = radiusKm / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(latitude)), 0.01));
+        double minLat = Math.max(latitude - deltaLat, -90), maxLat = Math.min(latitude + deltaLat, 90);
+        double minLon = longitude - deltaLon, maxLon = longitude + deltaLon;
+        if (minLat == -90 || maxLat == 90) {
+            // Le cercle contient un pôle : toutes les longitudes sont concernées
+            minLon = -180;
+            maxLon = 180;
+        }
+        // Au-delà de ±180° la zone continue de l'autre côté de l'antiméridien
+        List<Geohash.LonRange> lonRanges = Geohash.longitudeRanges(minLon, maxLon);
+        List<String> cells = new ArrayList<>(Geohash.cover(minLat, minLon, maxLat, maxLon, MAX_COVER_CELLS));
+        LocalDateTime now = LocalDateTime.now();
+
+        Specification<Story> spec = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.or(cells.stream()
+                    .map(cell -> cb.like(root.get("geohash"), cell + "%"))
+                    .toArray(Predicate[]::new)));
+            predicates.add(cb.between(root.get("latitude"), minLat, maxLat));
+            predicates.add(cb.or(lonRanges.stream()
+                    .map(range -> cb.between(root.get("longitude"), range.min(), range.max()))
+                    .toArray(Predicate[]::new)));
+            predicates.add(cb.greaterThan(root.get("expiresAt"), now));
+            predicates.add(cb.or(cb.isNull(root.get("status")), cb.equal(root.get("status"), StoryStatus.READY)));
+            if (beforeId != null) {
+                predicates.add(cb.lessThan(root.get("id"), beforeId));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+
+        List<Story> candidates = storyRepository.findBy(spec, q -> q
+                .sortBy(Sort.by(Sort.Direction.DESC, "id"))
+                .limit(pageSize)
+                .all());
+
+        List<Story> nearby = candidates.stream()
+                .filter(story -> distanceKm(latitude, longitude, story.getLatitude(), story.getLongitude()) <= radiusKm)
+                .toList();
+        String nextCursor = candidates.size() < pageSize
+                ? null
+                : String.valueOf(candidates.get(candidates.size() - 1).getId());
+        return new NearbyStoriesPage(nearby, nextCursor);
+    }
+
+    private static Long parseCursor(String cursor) {
+        try {
+            return Long.valueOf(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    private void commitMedia(Long storyId, Path spooled, String contentType) {
+        try {
+            StoredMedia media = mediaStore.store(spooled, contentType);
+
+            storyRepository.findById(storyId).ifPresent(story -> {
+                String previousKey = story.getMediaKey();
+                story.setMediaUrl(media.url());
+                story.setMediaType(media.mediaType());
+                story.setMediaKey(media.key());
+                story.setCreatedAt(LocalDateTime.now());
+                story.setExpiresAt(LocalDateTime.now().plusHours(24));
+                story.setStatus(StoryStatus.READY);
+                story.setUpdateStatus(null);
+                Story ready = storyRepository.save(story);
+                storyCache.evict(ready);
+                timelineStore.publish(ready);
+                if (previousKey != null && !previousKey.equals(media.key())) {
+                    storyPurgeJob.scheduleMediaDelete(previousKey);
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Media upload failed for story {}: {}", storyId, e.getMessage());
+            storyRepository.findById(storyId).ifPresent(story -> {
+                if (story.getStatus() == StoryStatus.PENDING) {
+                    story.setStatus(StoryStatus.FAILED);
+                } else if (story.getUpdateStatus() == StoryStatus.PENDING) {
+                    // Mise à jour : l'ancien média reste en place, l'échec est visible sur /status
+                    story.setUpdateStatus(StoryStatus.FAILED);
+                } else {
+                    return;
+                }
+                storyRepository.save(story);
+                storyCache.evict(story);
+            });
+        } finally {
+            deleteQuietly(spooled);
+        }
+    }
+
+    // Multipart -> fichier temporaire : transferTo copie par flux, sans charger le média en mémoire
+    private Path spool(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new RuntimeException("File is required");
+        }
+        try {
+            // On garde l'extension d'origine : certains stockages s'en servent pour le Content-Type
+            Path spooled = Files.createTempFile("story_", extensionOf(file.getOriginalFilename()));
+            file.transferTo(spooled);
+            return spooled;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not store upload: " + e.getMessage());
+        }
+    }
+
+    private static String extensionOf(String filename) {
+        if (filename == null || filename.lastIndexOf('.') < 0) {
+            return "";
+        }
+        String extension = filename.substring(filename.lastIndexOf('.')).toLowerCase(Locale.ROOT);
+        return EXTENSION_PATTERN.matcher(extension).matches() ? extension : "";
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temp file {}", path);
+        }
     }
 }
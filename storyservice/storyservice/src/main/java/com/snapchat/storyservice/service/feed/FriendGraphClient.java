@@ -0,0 +1,63 @@
+package com.snapchat.storyservice.service.feed;
+
+import com.snapchat.identity.IdentityHeader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Lecture du graphe d'amitié tenu par userservice (GET /api/friends/{userId}).
+ * Appelé uniquement à la construction d'une timeline, jamais sur le chemin d'upload.
+ * userservice ne rend une liste d'amis qu'à l'utilisateur lui-même : l'appel porte un
+ * en-tête d'identité signé au nom du lecteur, valable quelques secondes.
+ */
+@Component
+public class FriendGraphClient {
+
+    private static final long IDENTITY_TTL_SECONDS = 30;
+
+    private final RestClient restClient;
+    private final IdentityHeader identityHeader;
+
+    public FriendGraphClient(RestClient.Builder builder,
+                             IdentityHeader identityHeader,
+                             @Value("${story.feed.userservice-url:http://localhost:8081}") String baseUrl,
+                             @Value("${story.feed.userservice-timeout:PT2S}") Duration timeout) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        this.restClient = builder
+                .baseUrl(baseUrl)
+                .requestFactory(requestFactory)
+                .build();
+        this.identityHeader = identityHeader;
+    }
+
+    /**
+     * Ids des amis de l'utilisateur ; lève RestClientException si userservice ne répond pas.
+     */
+    public List<String> friendIds(String userId) {
+        FriendIdsResponse response = restClient.get()
+                .uri("/api/friends/{userId}", userId)
+                .header(IdentityHeader.NAME, signedIdentity(userId))
+                .retrieve()
+                .body(FriendIdsResponse.class);
+        if (response == null || response.data() == null) {
+            return List.of();
+        }
+        return response.data().stream().map(String::valueOf).toList();
+    }
+
+    // Seul l'id est connu ici : userservice retrouve l'email à partir de lui
+    private String signedIdentity(String userId) {
+        long now = System.currentTimeMillis() / 1000;
+        return identityHeader.sign(new IdentityHeader.Identity(userId, "", null, now, now + IDENTITY_TTL_SECONDS));
+    }
+
+    private record FriendIdsResponse(String message, List<Long> data) {
+    }
+}
@@ -0,0 +1,191 @@
+package com.snapchat.storyservice.service.feed;
+
+import com.snapchat.storyservice.dto.StoryRing;
+import com.snapchat.storyservice.entity.Story;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Timeline précalculée d'un utilisateur : les stories actives de ses amis, regroupées
+ * en un anneau par auteur. Les anneaux sont triés par story la plus récente (expiresAt
+ * décroissant, toutes les stories vivant 24h), ce qui permet :
+ * <ul>
+ *     <li>une page en O(log n + taille de page) via le curseur (échéance, auteur) ;</li>
+ *     <li>un nettoyage des stories expirées par la fin de l'ordre, sans tout parcourir.</li>
+ * </ul>
+ * Le nombre total de stories est borné : au-delà, la plus ancienne est retirée.
+ */
+final class StoryTimeline {
+
+    private static final Comparator<Story> BY_EXPIRY = Comparator
+            .comparing((Story story) -> epochMillis(story.getExpiresAt()))
+            .thenComparing(Story::getId);
+
+    // Plus récent d'abord ; l'auteur départage deux anneaux de même échéance
+    private static final Comparator<Ring> RING_ORDER = Comparator
+            .comparingLong((Ring ring) -> ring.latest).reversed()
+            .thenComparing(ring -> ring.authorId);
+
+    private final Set<String> friends;
+    private final int maxStories;
+    private final Map<String, Ring> rings = new HashMap<>();
+    private final TreeSet<Ring> order = new TreeSet<>(RING_ORDER);
+    private int size;
+
+    StoryTimeline(Set<String> friends, int maxStories) {
+        this.friends = friends;
+        this.maxStories = maxStories;
+    }
+
+    Set<String> friends() {
+        return friends;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Ajoute ou remplace (même id) une story ; sans effet si elle est déjà expirée.
+     */
+    synchronized void add(Story story, LocalDateTime now) {
+        if (story.getExpiresAt() == null || !story.getExpiresAt().isAfter(now)) {
+            return;
+        }
+        Ring ring = rings.computeIfAbsent(story.getUserId(), Ring::new);
+        order.remove(ring);
+        Story previous = ring.byId.put(story.getId(), story);
+        if (previous != null) {
+            ring.stories.remove(previous);
+            size--;
+        }
+        ring.stories.add(story);
+        size++;
+        ring.latest = epochMillis(ring.stories.last().getExpiresAt());
+        order.add(ring);
+        while (size > maxStories) {
+            removeOldest();
+        }
+    }
+
+    /**
+     * Une page d'anneaux après le curseur. Les stories de chaque anneau sont rendues de la
+     * plus ancienne à la plus récente, dans l'ordre de lecture.
+     */
+    synchronized Page page(Cursor after, int pageSize, LocalDateTime now) {
+        trimExpired(now);
+        long nowMillis = epochMillis(now);
+        Iterator<Ring> candidates = after == null
+                ? order.iterator()
+                : order.tailSet(after.probe(), false).iterator();
+        List<StoryRing> page = new ArrayList<>(pageSize);
+        Ring last = null;
+        while (candidates.hasNext() && page.size() < pageSize) {
+            Ring ring = candidates.next();
+            List<Story> active = new ArrayList<>(ring.stories.size());
+            for (Story story : ring.stories) {
+                if (epochMillis(story.getExpiresAt()) > nowMillis) {
+                    active.add(story);
+                }
+            }
+            page.add(new StoryRing(ring.authorId, List.copyOf(active)));
+            last = ring;
+        }
+        Cursor next = last != null && candidates.hasNext() ? new Cursor(last.latest, last.authorId) : null;
+        return new Page(page, next);
+    }
+
+    /**
+     * Retire les stories expirées. Seuls les anneaux en fin d'ordre peuvent être entièrement
+     * expirés ; dans les autres, les stories expirées restent jusqu'au prochain passage
+     * complet et sont filtrées à la lecture.
+     */
+    synchronized void trimExpired(LocalDateTime now) {
+        long nowMillis = epochMillis(now);
+        while (!order.isEmpty() && order.last().latest <= nowMillis) {
+            Ring ring = order.pollLast();
+            rings.remove(ring.authorId);
+            size -= ring.stories.size();
+        }
+    }
+
+    // Passage complet : aussi les stories expirées des anneaux encore actifs
+    synchronized void trimAllExpired(LocalDateTime now) {
+        trimExpired(now);
+        long nowMillis = epochMillis(now);
+        for (Ring ring : order) {
+            while (epochMillis(ring.stories.first().getExpiresAt()) <= nowMillis) {
+                ring.byId.remove(ring.stories.pollFirst().getId());
+                size--;
+            }
+        }
+    }
+
+    private void removeOldest() {
+        Ring ring = order.last();
+        Story oldest = ring.stories.pollFirst();
+        ring.byId.remove(oldest.getId());
+        size--;
+        if (ring.stories.isEmpty()) {
+            order.remove(ring);
+            rings.remove(ring.authorId);
+        }
+    }
+
+    private static long epochMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    record Page(List<StoryRing> rings, Cursor next) {
+    }
+
+    /**
+     * Position dans l'ordre des anneaux, sérialisée en "échéance:auteur".
+     */
+    record Cursor(long latest, String authorId) {
+
+        static Cursor parse(String value) {
+            int separator = value.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            try {
+                return new Cursor(Long.parseLong(value.substring(0, separator)), value.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        @Override
+        public String toString() {
+            return latest + ":" + authorId;
+        }
+
+        private Ring probe() {
+            Ring ring = new Ring(authorId);
+            ring.latest = latest;
+            return ring;
+        }
+    }
+
+    private static final class Ring {
+        private final String authorId;
+        private final TreeSet<Story> stories = new TreeSet<>(BY_EXPIRY);
+        private final Map<Long, Story> byId = new HashMap<>();
+        // Échéance de la story la plus récente ; modifiée uniquement hors de l'ordre
+        private long latest;
+
+        private Ring(String authorId) {
+            this.authorId = authorId;
+        }
+    }
+}
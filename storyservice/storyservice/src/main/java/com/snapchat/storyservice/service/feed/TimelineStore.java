@@ -0,0 +1,132 @@
+package com.snapchat.storyservice.service.feed;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.snapchat.storyservice.dto.StoryFeedPage;
+import com.snapchat.storyservice.entity.Story;
+import com.snapchat.storyservice.entity.StoryStatus;
+import com.snapchat.storyservice.repo.StoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Timelines de stories précalculées par utilisateur.
+ * <p>
+ * Une timeline est construite au premier accès (amis lus dans userservice, puis leurs stories
+ * actives par l'index (user_id, expires_at)), puis tenue à jour en mémoire : chaque story
+ * publiée est poussée dans les timelines chargées de ses amis grâce à un index inverse
+ * auteur -> timelines, sans appel à userservice. Une timeline est reconstruite après
+ * story.feed.rebuild-after, ce qui rattrape les changements d'amitié et les publications
+ * reçues par une autre instance. Métriques : cache.* sous le nom stories.timelines.
+ */
+@Component
+public class TimelineStore {
+
+    private static final int LOAD_CHUNK = 500;
+
+    private final StoryRepository storyRepository;
+    private final FriendGraphClient friendGraphClient;
+    private final int maxStoriesPerTimeline;
+    private final Cache<String, StoryTimeline> timelines;
+    private final Map<String, Set<StoryTimeline>> followers = new ConcurrentHashMap<>();
+
+    public TimelineStore(StoryRepository storyRepository,
+                         FriendGraphClient friendGraphClient,
+                         MeterRegistry meterRegistry,
+                         @Value("${story.feed.max-timelines:50000}") long maxTimelines,
+                         @Value("${story.feed.max-stories-per-timeline:1000}") int maxStoriesPerTimeline,
+                         @Value("${story.feed.rebuild-after:PT5M}") Duration rebuildAfter) {
+        this.storyRepository = storyRepository;
+        this.friendGraphClient = friendGraphClient;
+        this.maxStoriesPerTimeline = maxStoriesPerTimeline;
+        this.timelines = Caffeine.newBuilder()
+                .maximumSize(maxTimelines)
+                .expireAfterWrite(rebuildAfter)
+                .removalListener((String viewer, StoryTimeline timeline, RemovalCause cause) -> unregister(timeline))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, timelines, "stories.timelines");
+    }
+
+    public StoryFeedPage page(String viewer, String cursor, int size) {
+        StoryTimeline.Cursor after = cursor == null || cursor.isBlank() ? null : StoryTimeline.Cursor.parse(cursor);
+        StoryTimeline.Page page = timelines.get(viewer, this::build).page(after, size, LocalDateTime.now());
+        return new StoryFeedPage(page.rings(), page.next() == null ? null : page.next().toString());
+    }
+
+    /**
+     * Story devenue visible (ou remplacée) : ajoutée aux timelines chargées des amis de l'auteur.
+     */
+    public void publish(Story story) {
+        if (story.getUserId() == null || (story.getStatus() != null && story.getStatus() != StoryStatus.READY)) {
+            return;
+        }
+        Set<StoryTimeline> targets = followers.get(story.getUserId());
+        if (targets == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        targets.forEach(timeline -> timeline.add(story, now));
+    }
+
+    public void trimExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        timelines.asMap().values().forEach(timeline -> timeline.trimAllExpired(now));
+    }
+
+    private StoryTimeline build(String viewer) {
+        Set<String> friends = new LinkedHashSet<>(friendGraphClient.friendIds(viewer));
+        friends.remove(viewer);
+        StoryTimeline timeline = new StoryTimeline(Set.copyOf(friends), maxStoriesPerTimeline);
+        // Inscrite avant la lecture : une publication concurrente n'est pas perdue, add() dédoublonne par id
+        register(timeline);
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<String> authors = new ArrayList<>(friends);
+            for (int from = 0; from < authors.size(); from += LOAD_CHUNK) {
+                List<String> chunk = authors.subList(from, Math.min(from + LOAD_CHUNK, authors.size()));
+                storyRepository.findActiveByUsers(chunk, now, StoryStatus.READY, PageRequest.of(0, maxStoriesPerTimeline))
+                        .forEach(story -> timeline.add(story, now));
+            }
+            return timeline;
+        } catch (RuntimeException e) {
+            unregister(timeline);
+            throw e;
+        }
+    }
+
+    private void register(StoryTimeline timeline) {
+        for (String author : timeline.friends()) {
+            followers.compute(author, (key, targets) -> {
+                Set<StoryTimeline> updated = targets != null ? targets : ConcurrentHashMap.newKeySet();
+                updated.add(timeline);
+                return updated;
+            });
+        }
+    }
+
+    private void unregister(StoryTimeline timeline) {
+        if (timeline == null) {
+            return;
+        }
+        for (String author : timeline.friends()) {
+            followers.computeIfPresent(author, (key, targets) -> {
+                targets.remove(timeline);
+                return targets.isEmpty() ? null : targets;
+            });
+        }
+    }
+}
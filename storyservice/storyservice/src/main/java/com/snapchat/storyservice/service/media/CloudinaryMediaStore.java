@@ -0,0 +1,46 @@
+package com.snapchat.storyservice.service.media;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+
+@Component
+@ConditionalOnProperty(name = "story.media.store", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryMediaStore implements MediaStore {
+
+    private final Cloudinary cloudinary;
+
+    public CloudinaryMediaStore(Cloudinary cloudinary) {
+        this.cloudinary = cloudinary;
+    }
+
+    @Override
+    public StoredMedia store(Path source, String contentType) throws IOException {
+        Map uploadResult = cloudinary.uploader().upload(source.toFile(),
+                ObjectUtils.asMap(
+                        "resource_type", "auto", // auto-détection image/vidéo
+                        "public_id", "story_" + UUID.randomUUID()
+                ));
+
+        String resourceType = (String) uploadResult.get("resource_type");
+        // La suppression Cloudinary a besoin du type de ressource en plus du public_id
+        String key = resourceType + "/" + uploadResult.get("public_id");
+        return new StoredMedia(key, (String) uploadResult.get("secure_url"), resourceType);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        int separator = key.indexOf('/');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid media key: " + key);
+        }
+        cloudinary.uploader().destroy(key.substring(separator + 1),
+                ObjectUtils.asMap("resource_type", key.substring(0, separator)));
+    }
+}
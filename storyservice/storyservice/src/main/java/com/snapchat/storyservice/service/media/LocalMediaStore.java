@@ -0,0 +1,135 @@
+package com.snapchat.storyservice.service.media;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Stockage sur disque local, adressé par contenu : la clé est le SHA-256 du fichier,
+ * suivi de l'extension du fichier source, rangé sous root/ab/cd/abcd.... Un même média envoyé deux fois n'est écrit qu'une fois.
+ * Les copies passent par FileChannel.transferFrom, sans tampon applicatif.
+ */
+@Component
+@ConditionalOnProperty(name = "story.media.store", havingValue = "local")
+public class LocalMediaStore implements MediaStore {
+
+    // SHA-256 + extension d'origine éventuelle, qui sert à retrouver le Content-Type
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]{1,8})?");
+    private static final Pattern EXTENSION_PATTERN = Pattern.compile("\\.[a-z0-9]{1,8}");
+    private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final String publicBaseUrl;
+
+    public LocalMediaStore(@Value("${story.media.local.root:./media}") String root,
+                           @Value("${story.media.local.public-base-url:http://localhost:8082}") String publicBaseUrl)
+            throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.publicBaseUrl = publicBaseUrl;
+        Files.createDirectories(this.root);
+    }
+
+    @Override
+    public StoredMedia store(Path source, String contentType) throws IOException {
+        String key = sha256(source) + extensionOf(source);
+        Path target = pathOf(key);
+        if (!Files.exists(target)) {
+            Files.createDirectories(target.getParent());
+            Path partial = Files.createTempFile(target.getParent(), key, ".part");
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+                long size = in.size();
+                long position = 0;
+                while (position < size) {
+                    position += out.transferFrom(in, position, size - position);
+                }
+                out.force(false);
+            }
+            try {
+                Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Même contenu écrit en parallèle par un autre envoi
+                Files.deleteIfExists(partial);
+            }
+        }
+        return new StoredMedia(key, publicBaseUrl + "/api/stories/media/" + key, mediaTypeOf(contentType));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        if (KEY_PATTERN.matcher(key).matches()) {
+            Files.deleteIfExists(pathOf(key));
+        }
+    }
+
+    /**
+     * Chemin du média, vide si la clé est invalide ou le fichier absent.
+     */
+    public Optional<Path> resolve(String key) {
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            return Optional.empty();
+        }
+        Path path = pathOf(key);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    private Path pathOf(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    private static String sha256(Path source) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(DIGEST_BUFFER_SIZE);
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            while (in.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String extensionOf(Path source) {
+        String name = source.getFileName().toString().toLowerCase();
+        int dot = name.lastIndexOf('.');
+        if (dot < 0) {
+            return "";
+        }
+        String extension = name.substring(dot);
+        return EXTENSION_PATTERN.matcher(extension).matches() ? extension : "";
+    }
+
+    private static String mediaTypeOf(String contentType) {
+        if (contentType == null) {
+            return "raw";
+        }
+        if (contentType.startsWith("image/")) {
+            return "image";
+        }
+        if (contentType.startsWith("video/")) {
+            return "video";
+        }
+        return "raw";
+    }
+}
@@ -0,0 +1,22 @@
+package com.snapchat.storyservice.service.media;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Stockage des médias de stories. L'implémentation est choisie par story.media.store
+ * (cloudinary par défaut, local pour les environnements sans service externe).
+ */
+public interface MediaStore {
+
+    /**
+     * Enregistre le fichier source. Le fichier appartient toujours à l'appelant,
+     * qui le supprime après l'appel.
+     */
+    StoredMedia store(Path source, String contentType) throws IOException;
+
+    /**
+     * Supprime un média à partir de la clé renvoyée par {@link #store}.
+     */
+    void delete(String key) throws IOException;
+}
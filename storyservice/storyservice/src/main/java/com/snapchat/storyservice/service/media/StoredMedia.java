@@ -0,0 +1,8 @@
+package com.snapchat.storyservice.service.media;
+
+/**
+ * key : identifiant propre au stockage, utilisé pour la suppression.
+ * mediaType : "image", "video" ou "raw".
+ */
+public record StoredMedia(String key, String url, String mediaType) {
+}
@@ -0,0 +1,226 @@
+package com.snapchat.storyservice.service.views;
+
+import com.snapchat.storyservice.dto.StoryViewStats;
+import com.snapchat.storyservice.dto.StoryViewer;
+import com.snapchat.storyservice.entity.StoryViewCount;
+import com.snapchat.storyservice.repo.StoryViewCountRepository;
+import com.snapchat.storyservice.repo.StoryViewRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Vues des stories, comptées en mémoire et écrites en base par lots.
+ * <p>
+ * Une vue ne fait aucune écriture synchrone : elle incrémente un LongAdder (compteur réparti
+ * entre cellules, sans contention entre threads) et ajoute le lecteur à l'ensemble des vues
+ * de la story. Toutes les story.views.flush-interval, le tampon courant est remplacé par un
+ * neuf et le tampon remplacé au passage précédent est écrit :
+ * <ul>
+ *     <li>compteurs : INSERT ... ON DUPLICATE KEY UPDATE views = views + ?, une ligne par story ;</li>
+ *     <li>lecteurs : INSERT IGNORE dans story_views, la première vue fait foi.</li>
+ * </ul>
+ * Attendre un intervalle avant d'écrire un tampon laisse aux enregistrements commencés avant
+ * l'échange le temps de se terminer. Si l'écriture échoue, le tampon est réinjecté dans le
+ * tampon courant (un lot de compteurs écrit en partie peut alors être compté deux fois).
+ * Métriques : stories.views.recorded, stories.views.flushed, stories.views.flush.failed,
+ * stories.views.pending.
+ */
+@Component
+public class StoryViewTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(StoryViewTracker.class);
+
+    private static final String UPSERT_COUNT =
+            "INSERT INTO story_view_counts (story_id, views) VALUES (?, ?) ON DUPLICATE KEY UPDATE views = views + VALUES(views)";
+    private static final String INSERT_VIEWER =
+            "INSERT IGNORE INTO story_views (story_id, viewer_id, viewed_at) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final StoryViewRepository storyViewRepository;
+    private final StoryViewCountRepository storyViewCountRepository;
+    private final int batchSize;
+
+    private final AtomicReference<Buffer> current = new AtomicReference<>(new Buffer());
+    private volatile Buffer retired = new Buffer();
+    private final Counter recorded;
+    private final Counter flushed;
+    private final Counter flushFailed;
+
+    public StoryViewTracker(JdbcTemplate jdbcTemplate,
+                            StoryViewRepository storyViewRepository,
+                            StoryViewCountRepository storyViewCountRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${story.views.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.storyViewRepository = storyViewRepository;
+        this.storyViewCountRepository = storyViewCountRepository;
+        this.batchSize = batchSize;
+
+        this.recorded = meterRegistry.counter("stories.views.recorded");
+        this.flushed = meterRegistry.counter("stories.views.flushed");
+        this.flushFailed = meterRegistry.counter("stories.views.flush.failed");
+        Gauge.builder("stories.views.pending", current, buffer -> buffer.get().views.size())
+                .description("Stories with views not yet written to the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enregistre une vue en mémoire ; viewerId null compte la vue sans lecteur.
+     */
+    public void record(Long storyId, String viewerId) {
+        Buffer buffer = current.get();
+        buffer.views.computeIfAbsent(storyId, key -> new LongAdder()).increment();
+        if (viewerId != null) {
+            buffer.viewers.computeIfAbsent(storyId, key -> new ConcurrentHashMap<>())
+                    .putIfAbsent(viewerId, LocalDateTime.now());
+        }
+        recorded.increment();
+    }
+
+    public StoryViewStats stats(Long storyId) {
+        long stored = storyViewCountRepository.findById(storyId).map(StoryViewCount::getViews).orElse(0L);
+        return new StoryViewStats(storyId, stored + pendingViews(storyId), storyViewRepository.countByStoryId(storyId));
+    }
+
+    public List<StoryViewer> viewers(Long storyId, int page, int size) {
+        return storyViewRepository.findViewers(storyId, PageRequest.of(page, size));
+    }
+
+    /**
+     * Parmi les stories données, celles déjà vues par viewerId (en base ou encore en mémoire).
+     */
+    public Set<Long> seenAmong(String viewerId, Collection<Long> storyIds) {
+        if (viewerId == null || storyIds.isEmpty()) {
+            return Set.of();
+        }
+        Set<Long> seen = new HashSet<>(storyViewRepository.findSeenStoryIds(viewerId, storyIds));
+        for (Buffer buffer : List.of(current.get(), retired)) {
+            for (Long storyId : storyIds) {
+                Map<String, LocalDateTime> viewers = buffer.viewers.get(storyId);
+                if (viewers != null && viewers.containsKey(viewerId)) {
+                    seen.add(storyId);
+                }
+            }
+        }
+        return seen;
+    }
+
+    /**
+     * Stories purgées : leurs vues en attente et en base sont supprimées.
+     */
+    public void forget(Collection<Long> storyIds) {
+        if (storyIds.isEmpty()) {
+            return;
+        }
+        for (Buffer buffer : List.of(current.get(), retired)) {
+            storyIds.forEach(buffer.views::remove);
+            storyIds.forEach(buffer.viewers::remove);
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", storyIds);
+        namedJdbcTemplate.update("DELETE FROM story_view_counts WHERE story_id IN (:ids)", params);
+        namedJdbcTemplate.update("DELETE FROM story_views WHERE story_id IN (:ids)", params);
+    }
+
+    @Scheduled(fixedDelayString = "${story.views.flush-interval:PT5S}", initialDelayString = "${story.views.flush-interval:PT5S}")
+    public synchronized void flush() {
+        Buffer ready = retired;
+        retired = current.getAndSet(new Buffer());
+        write(ready);
+    }
+
+    @PreDestroy
+    synchronized void shutdown() {
+        // Plus d'enregistrements en cours à l'arrêt : les deux tampons sont écrits tout de suite
+        Buffer ready = retired;
+        retired = new Buffer();
+        write(ready);
+        write(current.getAndSet(new Buffer()));
+    }
+
+    private long pendingViews(Long storyId) {
+        long pending = 0;
+        for (Buffer buffer : List.of(current.get(), retired)) {
+            LongAdder adder = buffer.views.get(storyId);
+            if (adder != null) {
+                pending += adder.sum();
+            }
+        }
+        return pending;
+    }
+
+    private void write(Buffer buffer) {
+        if (buffer.views.isEmpty() && buffer.viewers.isEmpty()) {
+            return;
+        }
+        List<Object[]> counts = new ArrayList<>(buffer.views.size());
+        buffer.views.forEach((storyId, adder) -> counts.add(new Object[]{storyId, adder.sum()}));
+        List<Object[]> viewers = new ArrayList<>();
+        buffer.viewers.forEach((storyId, byViewer) -> byViewer.forEach((viewerId, viewedAt) ->
+                viewers.add(new Object[]{storyId, viewerId, Timestamp.valueOf(viewedAt)})));
+        // Compteurs et lecteurs réinjectés séparément : un échec des lecteurs ne rejoue pas les compteurs
+        try {
+            batch(UPSERT_COUNT, counts);
+            flushed.increment(counts.size());
+        } catch (RuntimeException e) {
+            flushFailed.increment();
+            log.warn("Could not flush view counts of {} stories, keeping them for the next run: {}", counts.size(), e.getMessage());
+            current.get().mergeViews(buffer);
+        }
+        try {
+            batch(INSERT_VIEWER, viewers);
+            flushed.increment(viewers.size());
+        } catch (RuntimeException e) {
+            flushFailed.increment();
+            log.warn("Could not flush {} story viewers, keeping them for the next run: {}", viewers.size(), e.getMessage());
+            current.get().mergeViewers(buffer);
+        }
+    }
+
+    private void batch(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + batchSize, rows.size())));
+        }
+    }
+
+    private static final class Buffer {
+        private final Map<Long, LongAdder> views = new ConcurrentHashMap<>();
+        private final Map<Long, Map<String, LocalDateTime>> viewers = new ConcurrentHashMap<>();
+
+        private void mergeViews(Buffer other) {
+            other.views.forEach((storyId, adder) ->
+                    views.computeIfAbsent(storyId, key -> new LongAdder()).add(adder.sum()));
+        }
+
+        private void mergeViewers(Buffer other) {
+            other.viewers.forEach((storyId, byViewer) -> {
+                Map<String, LocalDateTime> target = viewers.computeIfAbsent(storyId, key -> new ConcurrentHashMap<>());
+                byViewer.forEach(target::putIfAbsent);
+            });
+        }
+    }
+}
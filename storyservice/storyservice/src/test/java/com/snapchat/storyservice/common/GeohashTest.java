@@ -0,0 +1,76 @@
+package com.snapchat.storyservice.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeohashTest {
+
+    private static final int MAX_CELLS = 16;
+
+    @Test
+    void coverStaysWithinTheCellBudget() {
+        double[][] boxes = {
+                {48.85, 2.34, 48.86, 2.36},
+                {48.40, 1.90, 49.30, 2.80},
+                {-10, -20, 10, 20},
+                {-90, -180, 90, 180},
+                {0.5, 0.5, 0.5, 0.5}
+        };
+        for (double[] box : boxes) {
+            Set<String> cells = Geohash.cover(box[0], box[1], box[2], box[3], MAX_CELLS);
+            assertTrue(cells.size() <= MAX_CELLS, "too many cells for " + List.of(box[0], box[1], box[2], box[3]));
+            assertCovers(cells, box[0], box[1], box[2], box[3]);
+        }
+    }
+
+    @Test
+    void smallBoxUsesFinePrefixes() {
+        Set<String> cells = Geohash.cover(48.85, 2.34, 48.86, 2.36, MAX_CELLS);
+
+        assertTrue(cells.iterator().next().length() >= 5);
+    }
+
+    @Test
+    void latitudeBeyondThePoleIsClamped() {
+        Set<String> cells = Geohash.cover(85, -180, 95, 180, MAX_CELLS);
+
+        assertTrue(cells.size() <= MAX_CELLS);
+        assertCovers(cells, 85, -180, 90, 180);
+    }
+
+    @Test
+    void boxCrossingTheAntimeridianIsCoveredOnBothSides() {
+        Set<String> cells = Geohash.cover(-1, 179, 1, 181, MAX_CELLS);
+
+        assertTrue(cells.size() <= MAX_CELLS);
+        assertCovers(cells, -1, 179, 1, 180);
+        assertCovers(cells, -1, -180, 1, -179);
+    }
+
+    @Test
+    void longitudeRangesWrapAroundTheAntimeridian() {
+        assertEquals(List.of(new Geohash.LonRange(10, 20)), Geohash.longitudeRanges(10, 20));
+        assertEquals(List.of(new Geohash.LonRange(170, 180), new Geohash.LonRange(-180, -170)),
+                Geohash.longitudeRanges(170, 190));
+        assertEquals(List.of(new Geohash.LonRange(175, 180), new Geohash.LonRange(-180, -170)),
+                Geohash.longitudeRanges(-185, -170));
+        assertEquals(List.of(new Geohash.LonRange(-180, 180)), Geohash.longitudeRanges(-200, 200));
+    }
+
+    // Chaque point d'une grille sur le rectangle tombe dans l'une des cellules
+    private static void assertCovers(Set<String> cells, double minLat, double minLon, double maxLat, double maxLon) {
+        for (int i = 0; i <= 10; i++) {
+            for (int j = 0; j <= 10; j++) {
+                double lat = minLat + (maxLat - minLat) * i / 10;
+                double lon = minLon + (maxLon - minLon) * j / 10;
+                String hash = Geohash.encode(lat, lon, Geohash.MAX_PRECISION);
+                assertTrue(cells.stream().anyMatch(hash::startsWith), "(" + lat + ", " + lon + ") not covered");
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.snapchat.storyservice.controller;
+
+import com.snapchat.storyservice.service.media.LocalMediaStore;
+import com.snapchat.storyservice.service.media.StoredMedia;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MediaControllerTest {
+
+    private static final String CONTENT = "0123456789";
+
+    @TempDir
+    Path dir;
+
+    private MediaController controller;
+    private String key;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        LocalMediaStore store = new LocalMediaStore(dir.resolve("media").toString(), "http://localhost");
+        Path source = Files.writeString(dir.resolve("clip.mp4"), CONTENT);
+        StoredMedia media = store.store(source, "video/mp4");
+        key = media.key();
+        controller = new MediaController(store);
+    }
+
+    @Test
+    void closedRangeIsClampedToTheFile() {
+        assertArrayEquals(new long[]{2, 5}, MediaController.parseRange("bytes=2-5", 10));
+        assertArrayEquals(new long[]{2, 9}, MediaController.parseRange("bytes=2-99", 10));
+    }
+
+    @Test
+    void openEndedRangeRunsToTheEnd() {
+        assertArrayEquals(new long[]{4, 9}, MediaController.parseRange("bytes=4-", 10));
+    }
+
+    @Test
+    void suffixRangeReturnsTheLastBytes() {
+        assertArrayEquals(new long[]{7, 9}, MediaController.parseRange("bytes=-3", 10));
+        assertArrayEquals(new long[]{0, 9}, MediaController.parseRange("bytes=-50", 10));
+    }
+
+    @Test
+    void unsatisfiableRangesAreRejected() {
+        assertNull(MediaController.parseRange("bytes=10-", 10));
+        assertNull(MediaController.parseRange("bytes=5-3", 10));
+        assertNull(MediaController.parseRange("bytes=-0", 10));
+        assertNull(MediaController.parseRange("bytes=0-1,4-5", 10));
+        assertNull(MediaController.parseRange("items=0-1", 10));
+        assertNull(MediaController.parseRange("bytes=a-b", 10));
+        assertNull(MediaController.parseRange("bytes=0-", 0));
+    }
+
+    @Test
+    void suffixRequestIsServedAsPartialContent() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.getMedia(key, "bytes=-3", new MockHttpServletRequest(), response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 7-9/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("789", response.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void unsatisfiableRequestGets416WithTheFileSize() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.getMedia(key, "bytes=20-", new MockHttpServletRequest(), response);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+}
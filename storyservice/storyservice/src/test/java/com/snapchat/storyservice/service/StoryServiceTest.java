@@ -0,0 +1,120 @@
+package com.snapchat.storyservice.service;
+
+import com.snapchat.storyservice.dto.NearbyStoriesPage;
+import com.snapchat.storyservice.entity.Story;
+import com.snapchat.storyservice.repo.StoryRepository;
+import com.snapchat.storyservice.service.views.StoryViewTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StoryServiceTest {
+
+    @Mock
+    private StoryCache storyCache;
+    @Mock
+    private StoryViewTracker storyViewTracker;
+    @Mock
+    private StoryRepository storyRepository;
+    @InjectMocks
+    private StoryService storyService;
+
+    private Story story;
+
+    @BeforeEach
+    void setUp() {
+        story = new Story();
+        story.setId(42L);
+        story.setUserId("author");
+    }
+
+    @Test
+    void authenticatedViewerIsRecorded() {
+        when(storyCache.get(42L)).thenReturn(Optional.of(story));
+
+        storyService.viewStory(42L, "viewer");
+
+        verify(storyViewTracker).record(42L, "viewer");
+    }
+
+    @Test
+    void anonymousAndAuthorReadsAreNotRecorded() {
+        when(storyCache.get(42L)).thenReturn(Optional.of(story));
+
+        storyService.viewStory(42L, null);
+        storyService.viewStory(42L, "author");
+
+        verify(storyViewTracker, never()).record(anyLong(), any());
+    }
+
+    @Test
+    void onlyTheAuthorCanUpdateAStory() {
+        when(storyRepository.findById(42L)).thenReturn(Optional.of(story));
+        MockMultipartFile file = new MockMultipartFile("file", "new.jpg", "image/jpeg", new byte[]{1});
+
+        assertThrows(AccessDeniedException.class, () -> storyService.updateStory(42L, "intruder", file, 0, 0));
+        assertThrows(AuthenticationCredentialsNotFoundException.class,
+                () -> storyService.updateStory(42L, null, file, 0, 0));
+
+        verify(storyRepository, never()).save(any());
+    }
+
+    @Test
+    void anonymousUploadIsRejected() {
+        MockMultipartFile file = new MockMultipartFile("file", "new.jpg", "image/jpeg", new byte[]{1});
+
+        assertThrows(AuthenticationCredentialsNotFoundException.class,
+                () -> storyService.uploadStory(file, null, 0, 0));
+
+        verify(storyRepository, never()).save(any());
+    }
+
+    @Test
+    void nearbyKeepsOnlyCandidatesInsideTheRadius() {
+        Story close = located(1L, 48.8570, 2.3530);
+        Story outside = located(2L, 48.9500, 2.3530);
+        when(storyRepository.findBy(any(Specification.class), any())).thenReturn(List.of(close, outside));
+
+        NearbyStoriesPage page = storyService.getNearbyStories(48.8566, 2.3522, 5, null, 20);
+
+        assertEquals(List.of(close), page.stories());
+    }
+
+    @Test
+    void nearbyReachesAcrossTheAntimeridian() {
+        Story acrossTheLine = located(1L, 0, -179.99);
+        when(storyRepository.findBy(any(Specification.class), any())).thenReturn(List.of(acrossTheLine));
+
+        NearbyStoriesPage page = storyService.getNearbyStories(0, 179.99, 5, null, 20);
+
+        assertEquals(List.of(acrossTheLine), page.stories());
+    }
+
+    private static Story located(Long id, double latitude, double longitude) {
+        Story located = new Story();
+        located.setId(id);
+        located.setLatitude(latitude);
+        located.setLongitude(longitude);
+        return located;
+    }
+}
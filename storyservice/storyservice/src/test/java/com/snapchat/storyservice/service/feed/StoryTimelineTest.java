@@ -0,0 +1,122 @@
+package com.snapchat.storyservice.service.feed;
+
+import com.snapchat.storyservice.dto.StoryRing;
+import com.snapchat.storyservice.entity.Story;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StoryTimelineTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private final StoryTimeline timeline = new StoryTimeline(Set.of("alice", "bob", "carol"), 100);
+
+    @Test
+    void ringsAreOrderedByLatestStoryAndStoriesByExpiry() {
+        timeline.add(story(1, "alice", 60), NOW);
+        timeline.add(story(2, "bob", 120), NOW);
+        timeline.add(story(3, "alice", 180), NOW);
+        timeline.add(story(4, "carol", 30), NOW);
+
+        List<StoryRing> rings = timeline.page(null, 10, NOW).rings();
+
+        assertEquals(List.of("alice", "bob", "carol"), rings.stream().map(StoryRing::userId).toList());
+        assertEquals(List.of(1L, 3L), ids(rings.get(0)));
+    }
+
+    @Test
+    void cursorResumesAfterTheLastRingOfThePreviousPage() {
+        timeline.add(story(1, "alice", 180), NOW);
+        timeline.add(story(2, "bob", 120), NOW);
+        timeline.add(story(3, "carol", 60), NOW);
+
+        StoryTimeline.Page first = timeline.page(null, 2, NOW);
+        assertEquals(List.of("alice", "bob"), first.rings().stream().map(StoryRing::userId).toList());
+        assertNotNull(first.next());
+
+        StoryTimeline.Cursor cursor = StoryTimeline.Cursor.parse(first.next().toString());
+        StoryTimeline.Page second = timeline.page(cursor, 2, NOW);
+        assertEquals(List.of("carol"), second.rings().stream().map(StoryRing::userId).toList());
+        assertNull(second.next());
+    }
+
+    @Test
+    void ringsWithTheSameLatestExpiryAreOrderedByAuthor() {
+        timeline.add(story(1, "carol", 60), NOW);
+        timeline.add(story(2, "alice", 60), NOW);
+
+        StoryTimeline.Page first = timeline.page(null, 1, NOW);
+        StoryTimeline.Page second = timeline.page(first.next(), 1, NOW);
+
+        assertEquals("alice", first.rings().get(0).userId());
+        assertEquals("carol", second.rings().get(0).userId());
+    }
+
+    @Test
+    void expiredStoriesAreSkippedAndTrimmed() {
+        timeline.add(story(1, "alice", -5), NOW);
+        assertEquals(0, timeline.size());
+
+        timeline.add(story(2, "alice", 10), NOW);
+        timeline.add(story(3, "alice", 120), NOW);
+        timeline.add(story(4, "bob", 20), NOW);
+        LocalDateTime later = NOW.plusMinutes(30);
+
+        List<StoryRing> rings = timeline.page(null, 10, later).rings();
+        assertEquals(1, rings.size());
+        assertEquals(List.of(3L), ids(rings.get(0)));
+        // L'anneau de bob, entièrement expiré, est retiré ; la story 2 attend le passage complet
+        assertEquals(2, timeline.size());
+
+        timeline.trimAllExpired(later);
+        assertEquals(1, timeline.size());
+    }
+
+    @Test
+    void sameStoryIsReplacedNotDuplicated() {
+        timeline.add(story(1, "alice", 60), NOW);
+        timeline.add(story(1, "alice", 90), NOW);
+
+        assertEquals(1, timeline.size());
+        assertEquals(List.of(1L), ids(timeline.page(null, 10, NOW).rings().get(0)));
+    }
+
+    @Test
+    void oldestStoryIsEvictedBeyondTheCap() {
+        StoryTimeline capped = new StoryTimeline(Set.of("alice", "bob"), 2);
+        capped.add(story(1, "bob", 30), NOW);
+        capped.add(story(2, "alice", 60), NOW);
+        capped.add(story(3, "alice", 90), NOW);
+
+        List<StoryRing> rings = capped.page(null, 10, NOW).rings();
+        assertEquals(2, capped.size());
+        assertEquals(List.of("alice"), rings.stream().map(StoryRing::userId).toList());
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> StoryTimeline.Cursor.parse("nope"));
+        assertThrows(IllegalArgumentException.class, () -> StoryTimeline.Cursor.parse("abc:alice"));
+        assertEquals(new StoryTimeline.Cursor(12, "alice"), StoryTimeline.Cursor.parse("12:alice"));
+    }
+
+    private static Story story(long id, String author, int expiresInMinutes) {
+        Story story = new Story();
+        story.setId(id);
+        story.setUserId(author);
+        story.setExpiresAt(NOW.plusMinutes(expiresInMinutes));
+        return story;
+    }
+
+    private static List<Long> ids(StoryRing ring) {
+        return ring.stories().stream().map(Story::getId).toList();
+    }
+}
@@ -0,0 +1,97 @@
+package com.snapchat.storyservice.service.feed;
+
+import com.snapchat.storyservice.dto.StoryFeedPage;
+import com.snapchat.storyservice.dto.StoryRing;
+import com.snapchat.storyservice.entity.Story;
+import com.snapchat.storyservice.entity.StoryStatus;
+import com.snapchat.storyservice.repo.StoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TimelineStoreTest {
+
+    private StoryRepository storyRepository;
+    private FriendGraphClient friendGraphClient;
+    private TimelineStore store;
+
+    @BeforeEach
+    void setUp() {
+        storyRepository = mock(StoryRepository.class);
+        friendGraphClient = mock(FriendGraphClient.class);
+        store = new TimelineStore(storyRepository, friendGraphClient, new SimpleMeterRegistry(),
+                100, 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void timelineIsBuiltOnceFromTheFriendsStories() {
+        when(friendGraphClient.friendIds("me")).thenReturn(List.of("alice", "me", "bob"));
+        when(storyRepository.findActiveByUsers(anyCollection(), any(), eq(StoryStatus.READY), any()))
+                .thenReturn(List.of(story(1, "alice", 60), story(2, "bob", 120)));
+
+        StoryFeedPage page = store.page("me", null, 10);
+        store.page("me", null, 10);
+
+        assertEquals(List.of("bob", "alice"), page.rings().stream().map(StoryRing::userId).toList());
+        ArgumentCaptor<Collection<String>> authors = ArgumentCaptor.forClass(Collection.class);
+        verify(storyRepository, times(1)).findActiveByUsers(authors.capture(), any(), eq(StoryStatus.READY), any());
+        assertEquals(List.of("alice", "bob"), List.copyOf(authors.getValue()));
+    }
+
+    @Test
+    void publishedStoryReachesLoadedTimelinesOfFriendsOnly() {
+        when(friendGraphClient.friendIds("me")).thenReturn(List.of("alice"));
+        store.page("me", null, 10);
+
+        store.publish(story(3, "alice", 60));
+        store.publish(story(4, "mallory", 60));
+        Story pending = story(5, "alice", 90);
+        pending.setStatus(StoryStatus.PENDING);
+        store.publish(pending);
+
+        List<StoryRing> rings = store.page("me", null, 10).rings();
+        assertEquals(1, rings.size());
+        assertEquals(List.of(3L), rings.get(0).stories().stream().map(Story::getId).toList());
+    }
+
+    @Test
+    void nextCursorIsNullOnTheLastPage() {
+        when(friendGraphClient.friendIds("me")).thenReturn(List.of("alice", "bob"));
+        when(storyRepository.findActiveByUsers(anyCollection(), any(), eq(StoryStatus.READY), any()))
+                .thenReturn(List.of(story(1, "alice", 60), story(2, "bob", 120)));
+
+        StoryFeedPage first = store.page("me", null, 1);
+        StoryFeedPage last = store.page("me", first.nextCursor(), 1);
+
+        assertNotNull(first.nextCursor());
+        assertEquals("alice", last.rings().get(0).userId());
+        assertNull(last.nextCursor());
+    }
+
+    private static Story story(long id, String author, int expiresInMinutes) {
+        Story story = new Story();
+        story.setId(id);
+        story.setUserId(author);
+        story.setStatus(StoryStatus.READY);
+        story.setExpiresAt(LocalDateTime.now().plusMinutes(expiresInMinutes));
+        return story;
+    }
+}
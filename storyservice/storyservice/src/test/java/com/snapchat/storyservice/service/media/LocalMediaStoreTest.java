@@ -0,0 +1,72 @@
+package com.snapchat.storyservice.service.media;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalMediaStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private Path root;
+    private LocalMediaStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        root = dir.resolve("media");
+        store = new LocalMediaStore(root.toString(), "http://localhost");
+    }
+
+    @Test
+    void sameContentIsStoredOnceUnderOneKey() throws Exception {
+        StoredMedia first = store.store(Files.writeString(dir.resolve("a.jpg"), "same bytes"), "image/jpeg");
+        StoredMedia second = store.store(Files.writeString(dir.resolve("b.jpg"), "same bytes"), "image/jpeg");
+
+        assertEquals(first.key(), second.key());
+        assertEquals(1, countFiles());
+        assertEquals("same bytes", Files.readString(store.resolve(first.key()).orElseThrow()));
+    }
+
+    @Test
+    void differentContentGetsDifferentKeys() throws Exception {
+        StoredMedia first = store.store(Files.writeString(dir.resolve("a.jpg"), "one"), "image/jpeg");
+        StoredMedia second = store.store(Files.writeString(dir.resolve("b.jpg"), "two"), "image/jpeg");
+
+        assertNotEquals(first.key(), second.key());
+        assertEquals(2, countFiles());
+    }
+
+    @Test
+    void keyIsTheDigestPlusTheSourceExtension() throws Exception {
+        StoredMedia media = store.store(Files.writeString(dir.resolve("clip.MP4"), "video"), "video/mp4");
+
+        assertTrue(media.key().matches("[0-9a-f]{64}\\.mp4"));
+        assertEquals("video", media.mediaType());
+        assertEquals("http://localhost/api/stories/media/" + media.key(), media.url());
+    }
+
+    @Test
+    void invalidOrUnknownKeysDoNotResolve() throws Exception {
+        assertTrue(store.resolve("../../etc/passwd").isEmpty());
+        assertTrue(store.resolve("a".repeat(64)).isEmpty());
+
+        StoredMedia media = store.store(Files.writeString(dir.resolve("a.jpg"), "gone"), "image/jpeg");
+        store.delete(media.key());
+        assertTrue(store.resolve(media.key()).isEmpty());
+    }
+
+    private long countFiles() throws Exception {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
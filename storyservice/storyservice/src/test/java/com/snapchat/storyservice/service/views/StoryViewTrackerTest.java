@@ -0,0 +1,126 @@
+package com.snapchat.storyservice.service.views;
+
+import com.snapchat.storyservice.entity.StoryViewCount;
+import com.snapchat.storyservice.repo.StoryViewCountRepository;
+import com.snapchat.storyservice.repo.StoryViewRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StoryViewTrackerTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private StoryViewCountRepository countRepository;
+    private StoryViewTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        countRepository = mock(StoryViewCountRepository.class);
+        StoryViewRepository viewRepository = mock(StoryViewRepository.class);
+        when(countRepository.findById(anyLong())).thenReturn(Optional.empty());
+        tracker = new StoryViewTracker(jdbcTemplate, viewRepository, countRepository, new SimpleMeterRegistry(), 500);
+    }
+
+    @Test
+    void viewsAreWrittenOneIntervalAfterTheSwap() {
+        tracker.record(1L, "alice");
+        tracker.record(1L, "bob");
+
+        // Premier passage : le tampon est seulement mis de côté
+        tracker.flush();
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("INSERT"), anyList());
+        assertEquals(2, tracker.stats(1L).views());
+
+        tracker.flush();
+        assertArrayEquals(new Object[]{1L, 2L}, singleRow(countRows(1)));
+        assertEquals(2, viewerRows(1).get(0).size());
+        assertEquals(0, tracker.stats(1L).views());
+    }
+
+    @Test
+    void failedCountFlushIsMergedIntoTheNextBuffer() {
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO story_view_counts"), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(new int[]{1});
+        tracker.record(1L, null);
+        tracker.record(1L, null);
+        tracker.flush();
+        tracker.flush();
+
+        // Les deux vues en échec rejoignent celle enregistrée après coup
+        tracker.record(1L, null);
+        assertEquals(3, tracker.stats(1L).views());
+        tracker.flush();
+        tracker.flush();
+
+        List<List<Object[]>> batches = countRows(2);
+        assertArrayEquals(new Object[]{1L, 3L}, batches.get(1).get(0));
+    }
+
+    @Test
+    void failedViewerFlushDoesNotReplayCounts() {
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT IGNORE INTO story_views"), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(new int[]{1});
+        tracker.record(1L, "alice");
+        tracker.flush();
+        tracker.flush();
+        tracker.flush();
+        tracker.flush();
+
+        assertEquals(1, countRows(1).size());
+        List<List<Object[]>> viewerBatches = viewerRows(2);
+        assertEquals("alice", viewerBatches.get(1).get(0)[1]);
+    }
+
+    @Test
+    void statsAddPendingViewsToStoredCount() {
+        StoryViewCount stored = mock(StoryViewCount.class);
+        when(stored.getViews()).thenReturn(10L);
+        when(countRepository.findById(1L)).thenReturn(Optional.of(stored));
+        tracker.record(1L, null);
+        tracker.flush();
+        tracker.record(1L, null);
+
+        assertEquals(12, tracker.stats(1L).views());
+    }
+
+    private List<List<Object[]>> countRows(int times) {
+        return captureBatches("INSERT INTO story_view_counts", times);
+    }
+
+    private List<List<Object[]>> viewerRows(int times) {
+        return captureBatches("INSERT IGNORE INTO story_views", times);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object[]>> captureBatches(String sqlPrefix, int times) {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(times)).batchUpdate(startsWith(sqlPrefix), rows.capture());
+        return rows.getAllValues();
+    }
+
+    private static Object[] singleRow(List<List<Object[]>> batches) {
+        assertEquals(1, batches.size());
+        assertEquals(1, batches.get(0).size());
+        return batches.get(0).get(0);
+    }
+}
@@ -0,0 +1,73 @@
+package com.snapchat.userservice.common;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * UserValidator.validatePassword face aux anciennes vérifications (Pattern.compile à chaque appel,
+ * puis matches sur ".*X.*"). Les entrées adverses n'ont de chiffre ou de caractère spécial qu'en
+ * dernière position, ou pas du tout : le pire cas du backtracking des regex.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserValidatorBenchmark {
+
+    @Param({"16", "1024", "16384"})
+    private int length;
+
+    // valid : chiffre et spécial au début ; digitLast / specialLast : trouvés en fin ; noDigit : absent
+    @Param({"valid", "digitLast", "specialLast", "noDigit"})
+    private String shape;
+
+    private final UserValidator validator = new UserValidator();
+    private String password;
+
+    @Setup
+    public void setUp() {
+        String filler = "a".repeat(length);
+        password = switch (shape) {
+            case "valid" -> "1!" + filler;
+            case "digitLast" -> "!" + filler + "1";
+            case "specialLast" -> "1" + filler + "!";
+            case "noDigit" -> "!" + filler;
+            default -> throw new IllegalArgumentException(shape);
+        };
+    }
+
+    @Benchmark
+    public boolean validatePassword() {
+        try {
+            validator.validatePassword(password);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public boolean legacyRegex() {
+        if (password.length() < UserValidator.MIN_PASSWORD_LENGTH) {
+            return false;
+        }
+        if (!Pattern.compile(".*[0-9].*").matcher(password).matches()) {
+            return false;
+        }
+        return Pattern.compile(".*[!@#$%^&*(),.?\":{}|<>].*").matcher(password).matches();
+    }
+}
@@ -0,0 +1,107 @@
+package com.snapchat.userservice.security.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût par token de JwtAuthService face à l'ancienne implémentation, qui décodait le secret
+ * et construisait clé et parser à chaque appel (et parsait le token une fois par claim lu).
+ * legacy* : ancien chemin, reproduit ici ; les autres : clé et parser construits une fois,
+ * puis vérification servie par le cache de tokens.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthServiceBenchmark {
+
+    private static final String SECRET = "c7d9e7f2ad9c8d6b4a3f1e8d7c5b2a9d6f3e8c1b4a7d5f2e8c9b6a3d1f4e7";
+
+    private JwtAuthService jwtAuthService;
+    private UserDetails user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtAuthService = new JwtAuthService(SECRET, 10_000);
+        user = User.withUsername("bench@test.com").password("").authorities("USER").build();
+        token = jwtAuthService.generateToken(user);
+        jwtAuthService.verify(token);
+    }
+
+    @Benchmark
+    public String legacySign() {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("roles", "USER");
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setClaims(claims)
+                .setSubject(user.getUsername())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + JwtAuthService.JWT_VALIDITY * 1000))
+                .signWith(legacyKey(), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtAuthService.generateToken(user);
+    }
+
+    // Une requête lisait sujet, expiration et rôle : trois parsers, trois vérifications de signature
+    @Benchmark
+    public Object[] legacyRequest() {
+        return new Object[]{
+                legacyClaims().getSubject(),
+                legacyClaims().getExpiration(),
+                legacyClaims().get("roles", String.class)
+        };
+    }
+
+    // Parser pré-construit, sans le cache : une seule vérification de signature
+    @Benchmark
+    public Claims parse() {
+        return jwtAuthService.extractClaims(token, claims -> claims);
+    }
+
+    // Chemin du filtre JWT : token déjà vérifié, servi par le cache
+    @Benchmark
+    public VerifiedToken verifyCached() {
+        return jwtAuthService.verify(token);
+    }
+
+    private Claims legacyClaims() {
+        return Jwts.parserBuilder()
+                .setSigningKey(legacyKey())
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    private static Key legacyKey() {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    }
+}
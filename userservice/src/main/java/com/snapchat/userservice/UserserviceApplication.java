@@ -1,7 +1,9 @@
 package com.snapchat.userservice;
 
-import com.snapchat.userservice.security.dto.RegisterRequest;
+import com.snapchat.userservice.user.dto.UserRequest;
 import com.snapchat.userservice.user.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -10,6 +12,7 @@ import org.springframework.context.annotation.Profile;
 
 @SpringBootApplication
 public class UserserviceApplication {
+	private static final Logger log = LoggerFactory.getLogger(UserserviceApplication.class);
 
 	@Bean
 	@Profile("!test")
@@ -18,14 +21,14 @@ public class UserserviceApplication {
 
 			//create admin
 			if (userService.getOneUserByEmail("hamza@hamza.com") == null) {
-				userService.createUser(new User("Hamza","hamza@hamza.com", "UserPass123!"));
-				System.out.println("Hamza added.");
+				userService.createUser(new UserRequest(null, "Hamza", "Admin", "hamza@hamza.com", "UserPass123!", "ADMIN", null));
+				log.info("Default admin user created");
 			}
 
 			//create user
 			if (userService.getOneUserByEmail("saad@saad.com") == null) {
-				userService.createUser(new RegisterRequest("Saad", "saad@saad.com", "UserPass123!"));
-				System.out.println("Saad added.");
+				userService.createUser(new UserRequest(null, "Saad", "User", "saad@saad.com", "UserPass123!", "USER", null));
+				log.info("Default user created");
 			}
 
 
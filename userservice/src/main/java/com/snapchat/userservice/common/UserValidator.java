@@ -0,0 +1,49 @@
+package com.snapchat.userservice.common;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Règles de mot de passe partagées par register, createUser et updateUser.
+ * Une seule passe sur les caractères, sans regex : coût linéaire quelle que soit l'entrée.
+ */
+@Component
+public class UserValidator {
+
+    public static final int MIN_PASSWORD_LENGTH = 8;
+
+    private static final String SPECIAL_CHARACTERS = "!@#$%^&*(),.?\":{}|<>";
+    // Table de lookup ASCII construite une fois
+    private static final boolean[] SPECIAL = new boolean[128];
+
+    static {
+        for (int i = 0; i < SPECIAL_CHARACTERS.length(); i++) {
+            SPECIAL[SPECIAL_CHARACTERS.charAt(i)] = true;
+        }
+    }
+
+    /**
+     * Lève une IllegalArgumentException avec le même message et dans le même ordre de priorité
+     * que les anciennes vérifications : longueur, puis chiffre, puis caractère spécial.
+     */
+    public void validatePassword(String password) {
+        if (password.length() < MIN_PASSWORD_LENGTH) {
+            throw new IllegalArgumentException("Password must be at least 8 characters long.");
+        }
+        boolean hasDigit = false;
+        boolean hasSpecial = false;
+        for (int i = 0, n = password.length(); i < n && !(hasDigit && hasSpecial); i++) {
+            char c = password.charAt(i);
+            if (c >= '0' && c <= '9') {
+                hasDigit = true;
+            } else if (c < 128 && SPECIAL[c]) {
+                hasSpecial = true;
+            }
+        }
+        if (!hasDigit) {
+            throw new IllegalArgumentException("Password must contain at least one digit.");
+        }
+        if (!hasSpecial) {
+            throw new IllegalArgumentException("Password must contain at least one special character.");
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.snapchat.userservice.friend.controller;
+
+import com.snapchat.userservice.friend.dto.FriendRequestResponse;
+import com.snapchat.userservice.friend.dto.FriendshipStatus;
+import com.snapchat.userservice.friend.service.FriendService;
+import com.snapchat.userservice.common.ApiResponse;
+import com.snapchat.userservice.user.dto.UserResponse;
+import com.snapchat.userservice.user.service.UserService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/friends")
+public class FriendController {
+
+    private final FriendService friendService;
+    private final UserService userService;
+
+    public FriendController(FriendService friendService, UserService userService){
+        this.friendService = friendService;
+        this.userService = userService;
+    }
+
+    @PostMapping("requests/{targetId}")
+    public ResponseEntity<ApiResponse<FriendshipStatus>> sendRequest(@PathVariable Integer targetId) {
+        try {
+            FriendshipStatus status = friendService.sendRequest(currentUserId(), targetId);
+            return ResponseEntity.ok(new ApiResponse<>("Friend request sent", status));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    @PostMapping("requests/{requesterId}/accept")
+    public ResponseEntity<ApiResponse<Boolean>> acceptRequest(@PathVariable Integer requesterId) {
+        try {
+            friendService.acceptRequest(currentUserId(), requesterId);
+            return ResponseEntity.ok(new ApiResponse<>("Friend request accepted", true));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    @DeleteMapping("requests/{otherId}")
+    public ResponseEntity<ApiResponse<Boolean>> deleteRequest(@PathVariable Integer otherId) {
+        try {
+            friendService.deleteRequest(currentUserId(), otherId);
+            return ResponseEntity.ok(new ApiResponse<>("Friend request deleted", true));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("requests")
+    public ResponseEntity<ApiResponse<List<FriendRequestResponse>>> getPendingRequests() {
+        try {
+            return ResponseEntity.ok(new ApiResponse<>("Friend requests", friendService.getPendingRequests(currentUserId())));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    @DeleteMapping("{friendId}")
+    public ResponseEntity<ApiResponse<Boolean>> removeFriend(@PathVariable Integer friendId) {
+        try {
+            friendService.removeFriend(currentUserId(), friendId);
+            return ResponseEntity.ok(new ApiResponse<>("Friend removed", true));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    // Ids des amis, triés ; réservé à l'utilisateur et à ses amis (storyservice appelle au nom du lecteur)
+    @GetMapping("{userId}")
+    public ResponseEntity<ApiResponse<List<Integer>>> getFriends(@PathVariable Integer userId) {
+        requireAccessToFriendsOf(userId);
+        return ResponseEntity.ok(new ApiResponse<>("Friends", friendService.getFriendIds(userId)));
+    }
+
+    @GetMapping("{userId}/is-friend/{otherId}")
+    public ResponseEntity<ApiResponse<Boolean>> areFriends(@PathVariable Integer userId, @PathVariable Integer otherId) {
+        requireAccessToFriendsOf(userId);
+        return ResponseEntity.ok(new ApiResponse<>("Friendship", friendService.areFriends(userId, otherId)));
+    }
+
+    @GetMapping("{userId}/mutual/{otherId}")
+    public ResponseEntity<ApiResponse<List<Integer>>> getMutualFriends(@PathVariable Integer userId, @PathVariable Integer otherId) {
+        requireAccessToFriendsOf(userId);
+        return ResponseEntity.ok(new ApiResponse<>("Mutual friends", friendService.getMutualFriendIds(userId, otherId)));
+    }
+
+    // ?ids=1,2,3 : sous-ensemble des ids qui sont amis de userId (validation des destinataires)
+    @GetMapping("{userId}/among")
+    public ResponseEntity<ApiResponse<List<Integer>>> filterFriends(@PathVariable Integer userId,
+                                                                    @RequestParam("ids") List<Integer> ids) {
+        requireAccessToFriendsOf(userId);
+        try {
+            return ResponseEntity.ok(new ApiResponse<>("Friends", friendService.filterFriends(userId, ids)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    @ExceptionHandler(AuthenticationCredentialsNotFoundException.class)
+    public ResponseEntity<ApiResponse<Void>> handleUnauthenticated(AuthenticationCredentialsNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>(e.getMessage(), null));
+    }
+
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<ApiResponse<Void>> handleAccessDenied(AccessDeniedException e) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(new ApiResponse<>(e.getMessage(), null));
+    }
+
+    // Le graphe d'un utilisateur (liste, amis communs, appartenance) n'est lisible que par lui et ses amis
+    private void requireAccessToFriendsOf(Integer userId) {
+        Integer requesterId;
+        try {
+            requesterId = currentUserId();
+        } catch (RuntimeException e) {
+            throw new AuthenticationCredentialsNotFoundException("Authentication is required");
+        }
+        if (!friendService.canSeeFriendsOf(requesterId, userId)) {
+            throw new AccessDeniedException("Not allowed to see this friend list");
+        }
+    }
+
+    private Integer currentUserId() {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (!(principal instanceof UserDetails userDetails)) {
+            throw new IllegalArgumentException("User undefined");
+        }
+        UserResponse user = userService.getUserByEmail(userDetails.getUsername());
+        return user.id();
+    }
+}
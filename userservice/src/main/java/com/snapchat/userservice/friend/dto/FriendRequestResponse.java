@@ -0,0 +1,10 @@
+package com.snapchat.userservice.friend.dto;
+
+import java.util.Date;
+
+public record FriendRequestResponse(
+        Integer requesterId,
+        String requesterUsername,
+        Date createDate
+) {
+}
@@ -0,0 +1,7 @@
+package com.snapchat.userservice.friend.dto;
+
+// Résultat d'une demande d'ami : PENDING, ou FRIENDS si l'autre avait déjà demandé
+public enum FriendshipStatus {
+    PENDING,
+    FRIENDS
+}
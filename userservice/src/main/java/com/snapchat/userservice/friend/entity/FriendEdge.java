@@ -0,0 +1,100 @@
+package com.snapchat.userservice.friend.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * Arête orientée du graphe d'amitié. Une amitié est stockée dans les deux sens :
+ * la liste des amis d'un utilisateur est alors un simple parcours de la clé primaire.
+ * La clé est assignée : {@link #isNew()} évite le SELECT que ferait un merge avant chaque insertion.
+ */
+@Entity
+@Table(name = "friend_edges")
+@IdClass(FriendEdge.Key.class)
+public class FriendEdge implements Persistable<FriendEdge.Key> {
+
+    @Id
+    @Column(name = "user_id")
+    private Integer userId;
+
+    @Id
+    @Column(name = "friend_id")
+    private Integer friendId;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false, updatable = false)
+    private Date createDate;
+
+    @Transient
+    private boolean isNew = true;
+
+    public FriendEdge() {
+    }
+
+    public FriendEdge(Integer userId, Integer friendId) {
+        this.userId = userId;
+        this.friendId = friendId;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.createDate = new Date();
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(userId, friendId);
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public Integer getFriendId() {
+        return friendId;
+    }
+
+    public Date getCreateDate() {
+        return createDate;
+    }
+
+    public static class Key implements Serializable {
+        private Integer userId;
+        private Integer friendId;
+
+        public Key() {
+        }
+
+        public Key(Integer userId, Integer friendId) {
+            this.userId = userId;
+            this.friendId = friendId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(userId, key.userId) && Objects.equals(friendId, key.friendId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, friendId);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.snapchat.userservice.friend.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * Demande d'ami en attente ; supprimée quand elle est acceptée ou refusée.
+ */
+@Entity
+@Table(name = "friend_requests", indexes = {
+        // Demandes reçues, les plus récentes d'abord
+        @Index(name = "idx_friend_request_addressee", columnList = "addressee_id, create_date")
+})
+@IdClass(FriendRequest.Key.class)
+public class FriendRequest {
+
+    @Id
+    @Column(name = "requester_id")
+    private Integer requesterId;
+
+    @Id
+    @Column(name = "addressee_id")
+    private Integer addresseeId;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false, updatable = false)
+    private Date createDate;
+
+    public FriendRequest() {
+    }
+
+    public FriendRequest(Integer requesterId, Integer addresseeId) {
+        this.requesterId = requesterId;
+        this.addresseeId = addresseeId;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.createDate = new Date();
+    }
+
+    public Integer getRequesterId() {
+        return requesterId;
+    }
+
+    public Integer getAddresseeId() {
+        return addresseeId;
+    }
+
+    public Date getCreateDate() {
+        return createDate;
+    }
+
+    public static class Key implements Serializable {
+        private Integer requesterId;
+        private Integer addresseeId;
+
+        public Key() {
+        }
+
+        public Key(Integer requesterId, Integer addresseeId) {
+            this.requesterId = requesterId;
+            this.addresseeId = addresseeId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(requesterId, key.requesterId) && Objects.equals(addresseeId, key.addresseeId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(requesterId, addresseeId);
+        }
+    }
+}
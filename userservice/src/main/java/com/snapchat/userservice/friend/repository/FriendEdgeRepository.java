@@ -0,0 +1,31 @@
+package com.snapchat.userservice.friend.repository;
+
+import com.snapchat.userservice.friend.entity.FriendEdge;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FriendEdgeRepository extends JpaRepository<FriendEdge, FriendEdge.Key> {
+
+    // Parcours de la clé primaire (user_id, friend_id) : déjà trié, sans lecture de la table users
+    @Query("select e.friendId from FriendEdge e where e.userId = :userId order by e.friendId")
+    List<Integer> findFriendIds(@Param("userId") Integer userId);
+
+    @Modifying
+    @Query("delete from FriendEdge e where (e.userId = :a and e.friendId = :b) or (e.userId = :b and e.friendId = :a)")
+    int deletePair(@Param("a") Integer a, @Param("b") Integer b);
+
+    // Arêtes sortantes puis arêtes entrantes depuis ses amis : les deux suppressions suivent la clé primaire
+    @Modifying
+    @Query("delete from FriendEdge e where e.userId = :userId")
+    int deleteByUserId(@Param("userId") Integer userId);
+
+    @Modifying
+    @Query("delete from FriendEdge e where e.userId in :friendIds and e.friendId = :userId")
+    int deleteIncoming(@Param("userId") Integer userId, @Param("friendIds") List<Integer> friendIds);
+}
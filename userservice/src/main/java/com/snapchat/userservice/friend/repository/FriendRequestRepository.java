@@ -0,0 +1,21 @@
+package com.snapchat.userservice.friend.repository;
+
+import com.snapchat.userservice.friend.entity.FriendRequest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FriendRequestRepository extends JpaRepository<FriendRequest, FriendRequest.Key> {
+
+    List<FriendRequest> findByAddresseeIdOrderByCreateDateDesc(Integer addresseeId);
+
+    // Demandes envoyées (clé primaire) et reçues (idx_friend_request_addressee)
+    @Modifying
+    @Query("delete from FriendRequest r where r.requesterId = :userId or r.addresseeId = :userId")
+    int deleteAllOf(@Param("userId") Integer userId);
+}
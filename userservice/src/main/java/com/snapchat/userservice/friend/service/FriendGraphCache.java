@@ -0,0 +1,103 @@
+package com.snapchat.userservice.friend.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.snapchat.userservice.friend.repository.FriendEdgeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Listes d'adjacence en mémoire : un tableau d'ids trié par utilisateur, chargé depuis
+ * friend_edges au premier accès. « A et B sont amis » est une recherche dichotomique,
+ * les amis communs une intersection par fusion de deux tableaux triés ; aucun objet
+ * Integer n'est conservé par arête. Les tableaux servis sont partagés : lecture seule.
+ * Toute modification d'une amitié invalide les deux extrémités (tous ses amis pour un compte supprimé).
+ */
+@Component
+public class FriendGraphCache {
+
+    private static final int[] NO_FRIENDS = new int[0];
+
+    private final LoadingCache<Integer, int[]> adjacency;
+
+    public FriendGraphCache(FriendEdgeRepository friendEdgeRepository,
+                            @Value("${friends.cache.max-size:50000}") long maxSize,
+                            @Value("${friends.cache.ttl:30m}") Duration ttl,
+                            MeterRegistry meterRegistry) {
+        this.adjacency = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(ttl)
+                .recordStats()
+                .build(userId -> toSortedArray(friendEdgeRepository.findFriendIds(userId)));
+        CaffeineCacheMetrics.monitor(meterRegistry, adjacency, "friends.adjacency");
+    }
+
+    public int[] friendsOf(Integer userId) {
+        if (userId == null) {
+            return NO_FRIENDS;
+        }
+        return adjacency.get(userId);
+    }
+
+    public boolean areFriends(Integer a, Integer b) {
+        if (a == null || b == null || a.equals(b)) {
+            return false;
+        }
+        // Recherche dans la liste la plus courte déjà en cache, sinon dans celle de a
+        int[] friendsOfB = adjacency.getIfPresent(b);
+        if (friendsOfB != null) {
+            int[] friendsOfA = adjacency.getIfPresent(a);
+            if (friendsOfA == null || friendsOfB.length < friendsOfA.length) {
+                return Arrays.binarySearch(friendsOfB, a) >= 0;
+            }
+            return Arrays.binarySearch(friendsOfA, b) >= 0;
+        }
+        return Arrays.binarySearch(friendsOf(a), b) >= 0;
+    }
+
+    public int[] mutualFriends(Integer a, Integer b) {
+        int[] left = friendsOf(a);
+        int[] right = friendsOf(b);
+        int[] common = new int[Math.min(left.length, right.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                common[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return size == common.length ? common : Arrays.copyOf(common, size);
+    }
+
+    public void invalidate(Integer userId, Collection<Integer> others) {
+        adjacency.invalidate(userId);
+        adjacency.invalidateAll(others);
+    }
+
+    private static int[] toSortedArray(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return NO_FRIENDS;
+        }
+        int[] array = new int[ids.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = ids.get(i);
+        }
+        // La requête trie déjà ; on ne dépend pas de la collation de la base
+        Arrays.sort(array);
+        return array;
+    }
+}
@@ -0,0 +1,196 @@
+package com.snapchat.userservice.friend.service;
+
+import com.snapchat.userservice.friend.dto.FriendRequestResponse;
+import com.snapchat.userservice.friend.dto.FriendshipStatus;
+import com.snapchat.userservice.friend.entity.FriendEdge;
+import com.snapchat.userservice.friend.entity.FriendRequest;
+import com.snapchat.userservice.friend.repository.FriendEdgeRepository;
+import com.snapchat.userservice.friend.repository.FriendRequestRepository;
+import com.snapchat.userservice.user.service.UserCache;
+import com.snapchat.userservice.user.entity.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class FriendService {
+
+    private static final Logger log = LoggerFactory.getLogger(FriendService.class);
+    private static final int MAX_CHECKED_IDS = 300;
+
+    private final FriendEdgeRepository friendEdgeRepository;
+    private final FriendRequestRepository friendRequestRepository;
+    private final FriendGraphCache friendGraphCache;
+    private final UserCache userCache;
+
+    public FriendService(FriendEdgeRepository friendEdgeRepository, FriendRequestRepository friendRequestRepository,
+                         FriendGraphCache friendGraphCache, UserCache userCache){
+        this.friendEdgeRepository = friendEdgeRepository;
+        this.friendRequestRepository = friendRequestRepository;
+        this.friendGraphCache = friendGraphCache;
+        this.userCache = userCache;
+    }
+
+    /**
+     * Demande d'ami de requesterId vers targetId. Si targetId avait déjà fait la demande
+     * inverse, l'amitié est créée directement.
+     */
+    @Transactional
+    public FriendshipStatus sendRequest(Integer requesterId, Integer targetId) {
+        if (requesterId.equals(targetId)) {
+            throw new IllegalArgumentException("Cannot send a friend request to yourself.");
+        }
+        if (userCache.findById(targetId).isEmpty()) {
+            throw new IllegalArgumentException("User not found.");
+        }
+        if (friendGraphCache.areFriends(requesterId, targetId)) {
+            throw new IllegalArgumentException("Already friends.");
+        }
+        FriendRequest.Key reverse = new FriendRequest.Key(targetId, requesterId);
+        if (friendRequestRepository.existsById(reverse)) {
+            friendRequestRepository.deleteById(reverse);
+            link(requesterId, targetId);
+            return FriendshipStatus.FRIENDS;
+        }
+        friendRequestRepository.save(new FriendRequest(requesterId, targetId));
+        return FriendshipStatus.PENDING;
+    }
+
+    @Transactional
+    public void acceptRequest(Integer userId, Integer requesterId) {
+        FriendRequest.Key key = new FriendRequest.Key(requesterId, userId);
+        if (!friendRequestRepository.existsById(key)) {
+            throw new IllegalArgumentException("Friend request not found.");
+        }
+        friendRequestRepository.deleteById(key);
+        // Demandes croisées envoyées en même temps : la seconde n'a plus d'objet
+        friendRequestRepository.deleteById(new FriendRequest.Key(userId, requesterId));
+        link(userId, requesterId);
+    }
+
+    // Refus d'une demande reçue, ou annulation d'une demande envoyée
+    @Transactional
+    public void deleteRequest(Integer userId, Integer otherId) {
+        friendRequestRepository.deleteById(new FriendRequest.Key(otherId, userId));
+        friendRequestRepository.deleteById(new FriendRequest.Key(userId, otherId));
+    }
+
+    public List<FriendRequestResponse> getPendingRequests(Integer userId) {
+        List<FriendRequest> requests = friendRequestRepository.findByAddresseeIdOrderByCreateDateDesc(userId);
+        Map<Integer, User> requesters = userCache.findAllById(
+                requests.stream().map(FriendRequest::getRequesterId).collect(Collectors.toCollection(LinkedHashSet::new)));
+        List<FriendRequestResponse> responses = new ArrayList<>(requests.size());
+        for (FriendRequest request : requests) {
+            User requester = requesters.get(request.getRequesterId());
+            if (requester != null) {
+                responses.add(new FriendRequestResponse(
+                        requester.getId(),
+                        requester.getFirstName() + " " + requester.getLastName(),
+                        request.getCreateDate()));
+            }
+        }
+        return responses;
+    }
+
+    @Transactional
+    public void removeFriend(Integer userId, Integer friendId) {
+        if (friendEdgeRepository.deletePair(userId, friendId) == 0) {
+            throw new IllegalArgumentException("Not friends.");
+        }
+        invalidateAfterCommit(userId, friendId);
+        log.atInfo().addKeyValue("userId", userId).addKeyValue("friendId", friendId).log("Friendship removed");
+    }
+
+    /**
+     * Retire l'utilisateur du graphe (arêtes dans les deux sens et demandes en attente),
+     * à appeler quand son compte est supprimé : ses anciens amis ne le voient plus.
+     */
+    @Transactional
+    public void removeUser(Integer userId) {
+        List<Integer> friendIds = friendEdgeRepository.findFriendIds(userId);
+        friendEdgeRepository.deleteByUserId(userId);
+        if (!friendIds.isEmpty()) {
+            friendEdgeRepository.deleteIncoming(userId, friendIds);
+        }
+        friendRequestRepository.deleteAllOf(userId);
+        invalidateAfterCommit(userId, friendIds);
+        log.atInfo().addKeyValue("userId", userId).addKeyValue("friends", friendIds.size()).log("User removed from friend graph");
+    }
+
+    /**
+     * Un utilisateur ne voit que sa propre liste d'amis ou celle d'un ami.
+     */
+    public boolean canSeeFriendsOf(Integer requesterId, Integer userId) {
+        return requesterId != null && (requesterId.equals(userId) || friendGraphCache.areFriends(requesterId, userId));
+    }
+
+    public List<Integer> getFriendIds(Integer userId) {
+        return toList(friendGraphCache.friendsOf(userId));
+    }
+
+    public boolean areFriends(Integer a, Integer b) {
+        return friendGraphCache.areFriends(a, b);
+    }
+
+    public List<Integer> getMutualFriendIds(Integer a, Integer b) {
+        return toList(friendGraphCache.mutualFriends(a, b));
+    }
+
+    /**
+     * Parmi les ids demandés, ceux qui sont amis de userId, dans l'ordre de la requête.
+     * Permet de valider une liste de destinataires sans une requête par destinataire.
+     */
+    public List<Integer> filterFriends(Integer userId, List<Integer> ids) {
+        Set<Integer> unique = new LinkedHashSet<>(ids);
+        unique.remove(null);
+        if (unique.size() > MAX_CHECKED_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_CHECKED_IDS + " ids per request.");
+        }
+        int[] friends = friendGraphCache.friendsOf(userId);
+        List<Integer> result = new ArrayList<>(unique.size());
+        for (Integer id : unique) {
+            if (Arrays.binarySearch(friends, id) >= 0) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private void link(Integer a, Integer b) {
+        friendEdgeRepository.saveAll(List.of(new FriendEdge(a, b), new FriendEdge(b, a)));
+        invalidateAfterCommit(a, b);
+        log.atInfo().addKeyValue("userId", a).addKeyValue("friendId", b).log("Friendship created");
+    }
+
+    private void invalidateAfterCommit(Integer a, Integer b) {
+        invalidateAfterCommit(a, List.of(b));
+    }
+
+    // Invalidation après commit : un chargement concurrent ne peut pas remettre en cache l'état d'avant
+    private void invalidateAfterCommit(Integer userId, List<Integer> others) {
+        friendGraphCache.invalidate(userId, others);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    friendGraphCache.invalidate(userId, others);
+                }
+            });
+        }
+    }
+
+    private static List<Integer> toList(int[] ids) {
+        return Arrays.stream(ids).boxed().toList();
+    }
+}
@@ -1,6 +1,8 @@
 package com.snapchat.userservice.security.config;
 
-import com.traficandme.user_service_traficandme.user.repository.UserRepository;
+import com.snapchat.identity.IdentityHeader;
+import com.snapchat.userservice.user.service.UserCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -9,28 +11,28 @@ import org.springframework.security.authentication.dao.DaoAuthenticationProvider
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 
 @Configuration
 public class ApplicationConfig {
-    private final UserRepository userRepository;
+    private final UserCache userCache;
 
-    public ApplicationConfig (UserRepository userRepository){
-        this.userRepository = userRepository;
+    public ApplicationConfig (UserCache userCache){
+        this.userCache = userCache;
     }
 
     @Bean
     public UserDetailsService userDetailsService(){
-        return username -> userRepository.findByEmail(username).orElseThrow(() -> new UsernameNotFoundException("Username not found"));
+        return username -> userCache.findByEmail(username).orElseThrow(() -> new UsernameNotFoundException("Username not found"));
     }
 
+    // PasswordEncoder : BoundedPasswordEncoder, BCrypt sur un pool borné
     @Bean
-    public AuthenticationProvider authenticationProvider(){
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder){
         DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
         authenticationProvider.setUserDetailsService(userDetailsService());
-        authenticationProvider.setPasswordEncoder(passwordEncoder());
+        authenticationProvider.setPasswordEncoder(passwordEncoder);
         return authenticationProvider;
     }
 
@@ -40,7 +42,7 @@ public class ApplicationConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public IdentityHeader identityHeader(@Value("${app.identity.secret}") String secret) {
+        return new IdentityHeader(secret);
     }
 }
@@ -1,16 +1,21 @@
 package com.snapchat.userservice.security.config;
 
+import com.snapchat.userservice.security.utlis.JwtAuthFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 
 @Configuration
 @EnableWebSecurity
+// Active les @PreAuthorize des contrôleurs (routes admin)
+@EnableMethodSecurity
 public class SecurityConfiguration {
 
 
@@ -39,8 +44,11 @@ public class SecurityConfiguration {
     */
 
     @Bean
-    SecurityFilterChain openSecurityFilterChain(HttpSecurity httpSecurity) throws Exception {
+    SecurityFilterChain openSecurityFilterChain(HttpSecurity httpSecurity, JwtAuthFilter jwtAuthFilter) throws Exception {
+        // Dans la chaîne, avant le filtre anonyme : sinon l'authentification anonyme est déjà posée
+        // quand le filtre JWT passe, et l'utilisateur n'est jamais reconnu
         httpSecurity.csrf(AbstractHttpConfigurer::disable)
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
                 .authorizeHttpRequests(auth -> auth
                         .anyRequest().permitAll()
                 );
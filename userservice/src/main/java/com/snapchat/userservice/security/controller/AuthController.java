@@ -1,10 +1,13 @@
 package com.snapchat.userservice.security.controller;
 
-import com.traficandme.user_service_traficandme.common.ApiResponse;
-import com.traficandme.user_service_traficandme.security.dto.AuthenticateRequest;
-import com.traficandme.user_service_traficandme.security.dto.AuthenticateResponse;
-import com.traficandme.user_service_traficandme.security.dto.RegisterRequest;
-import com.traficandme.user_service_traficandme.security.service.AuthService;
+import com.snapchat.userservice.common.ApiResponse;
+import com.snapchat.userservice.security.dto.AuthenticateRequest;
+import com.snapchat.userservice.security.dto.AuthenticateResponse;
+import com.snapchat.userservice.security.dto.RegisterRequest;
+import com.snapchat.userservice.security.service.AuthService;
+import com.snapchat.userservice.security.service.PasswordHashingBusyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -26,6 +29,10 @@ public class AuthController {
             AuthenticateResponse response = userService.register(request);
             ApiResponse<AuthenticateResponse> apiResponse = new ApiResponse<>("User registered successfully", response);
             return ResponseEntity.ok(apiResponse);
+        } catch (PasswordHashingBusyException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new ApiResponse<>(e.getMessage(), null));
         } catch (RuntimeException e) {
             ApiResponse<AuthenticateResponse> errorResponse = new ApiResponse<>(e.getMessage(), null);
             return ResponseEntity.badRequest().body(errorResponse);
@@ -40,6 +47,10 @@ public class AuthController {
             AuthenticateResponse response = userService.authenticate(request);
             ApiResponse<AuthenticateResponse> apiResponse = new ApiResponse<>("Login successful", response);
             return ResponseEntity.ok(apiResponse);
+        } catch (PasswordHashingBusyException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new ApiResponse<>(e.getMessage(), null));
         } catch (RuntimeException e) {
             ApiResponse<AuthenticateResponse> errorResponse = new ApiResponse<>(e.getMessage(), null);
             return ResponseEntity.badRequest().body(errorResponse);
@@ -1,6 +1,6 @@
 package com.snapchat.userservice.security.dto;
 
-import com.traficandme.user_service_traficandme.user.dto.UserResponse;
+import com.snapchat.userservice.user.dto.UserResponse;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -0,0 +1,37 @@
+package com.snapchat.userservice.security.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Dernière modification d'un utilisateur qui invalide ses tokens déjà émis (statut, rôle,
+ * email, mot de passe, suppression). Partagée par toutes les instances et conservée au
+ * redémarrage ; les lignes plus anciennes que la durée de vie d'un token sont purgées.
+ */
+@Entity
+@Table(name = "token_revocations", indexes = @Index(name = "idx_token_revocations_changed_at", columnList = "changed_at"))
+public class TokenRevocation {
+
+    @Id
+    @Column(nullable = false)
+    private String email;
+
+    // Epoch en millisecondes
+    @Column(name = "changed_at", nullable = false)
+    private long changedAt;
+
+    public TokenRevocation() {
+    }
+
+    public TokenRevocation(String email, long changedAt) {
+        this.email = email;
+        this.changedAt = changedAt;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public long getChangedAt() {
+        return changedAt;
+    }
+}
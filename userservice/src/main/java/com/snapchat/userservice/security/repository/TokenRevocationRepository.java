@@ -0,0 +1,29 @@
+package com.snapchat.userservice.security.repository;
+
+import com.snapchat.userservice.security.entity.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, String> {
+
+    @Query("select r.changedAt from TokenRevocation r where r.email = :email")
+    Optional<Long> findChangedAt(@Param("email") String email);
+
+    // Mise à jour sans lecture préalable ; 0 si l'utilisateur n'a encore jamais été marqué
+    @Transactional
+    @Modifying
+    @Query("update TokenRevocation r set r.changedAt = :changedAt where r.email = :email")
+    int updateChangedAt(@Param("email") String email, @Param("changedAt") long changedAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from TokenRevocation r where r.changedAt < :before")
+    int deleteChangedBefore(@Param("before") long before);
+}
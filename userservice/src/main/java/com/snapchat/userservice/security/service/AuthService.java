@@ -1,33 +1,46 @@
 package com.snapchat.userservice.security.service;
 
-import com.traficandme.user_service_traficandme.common.Role;
-import com.traficandme.user_service_traficandme.security.dto.AuthenticateRequest;
-import com.traficandme.user_service_traficandme.security.dto.AuthenticateResponse;
-import com.traficandme.user_service_traficandme.security.dto.RegisterRequest;
-import com.traficandme.user_service_traficandme.user.dto.UserResponse;
-import com.traficandme.user_service_traficandme.user.entity.UserInfo;
-import com.traficandme.user_service_traficandme.user.repository.UserRepository;
+import com.snapchat.userservice.common.UserValidator;
+import com.snapchat.userservice.user.repository.UserConstraints;
+import com.snapchat.userservice.user.service.UserCache;
+import com.snapchat.userservice.common.Role;
+import com.snapchat.userservice.security.dto.AuthenticateRequest;
+import com.snapchat.userservice.security.dto.AuthenticateResponse;
+import com.snapchat.userservice.security.dto.RegisterRequest;
+import com.snapchat.userservice.user.dto.UserResponse;
+import com.snapchat.userservice.user.entity.User;
+import com.snapchat.userservice.user.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.AccountStatusException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.util.regex.Pattern;
+import java.util.Map;
 
 @Service
 public class AuthService {
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtAuthService jwtAuthService;
     private final AuthenticationManager authenticationManager;
+    private final UserValidator userValidator;
+    private final UserCache userCache;
 
 
-    public AuthService (UserRepository userRepository,PasswordEncoder passwordEncoder,JwtAuthService jwtAuthService,AuthenticationManager authenticationManager){
+    public AuthService (UserRepository userRepository,PasswordEncoder passwordEncoder,JwtAuthService jwtAuthService,AuthenticationManager authenticationManager,UserValidator userValidator,UserCache userCache){
         this.userRepository =userRepository;
         this.passwordEncoder =passwordEncoder;
         this.jwtAuthService =jwtAuthService;
         this.authenticationManager =authenticationManager;
+        this.userValidator =userValidator;
+        this.userCache =userCache;
     }
 
     public AuthenticateResponse register(RegisterRequest request) {
@@ -37,21 +50,9 @@ public class AuthService {
         if (isNullOrEmpty(request.getEmail())) throw new IllegalArgumentException("Email is required.");
         if (isNullOrEmpty(request.getPassword())) throw new IllegalArgumentException("Password is required.");
 
-        if (request.getPassword().length() < 8) {
-            throw new IllegalArgumentException("Password must be at least 8 characters long.");
-        }
-        if (!Pattern.compile(".*[0-9].*").matcher(request.getPassword()).matches()) {
-            throw new IllegalArgumentException("Password must contain at least one digit.");
-        }
-        if (!Pattern.compile(".*[!@#$%^&*(),.?\":{}|<>].*").matcher(request.getPassword()).matches()) {
-            throw new IllegalArgumentException("Password must contain at least one special character.");
-        }
-
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new IllegalArgumentException("Email is already in use.");
-        }
+        userValidator.validatePassword(request.getPassword());
 
-        UserInfo user = new UserInfo(
+        User user = new User(
                 null,
                 request.getFirstName(),
                 request.getLastName(),
@@ -59,11 +60,20 @@ public class AuthService {
                 passwordEncoder.encode(request.getPassword()),
                 Role.USER
         );
-        userRepository.save(user);
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            if (UserConstraints.isDuplicateEmail(e)) {
+                throw new IllegalArgumentException("Email is already in use.");
+            }
+            throw e;
+        }
 
-        System.out.println("Saved User Role: " + user.getRoles());
-        System.out.println("Saved User Authorities: " + user.getAuthorities());
-        String jwtToken = jwtAuthService.generateToken(user);
+        log.atInfo()
+                .addKeyValue("userId", user.getId())
+                .addKeyValue("role", user.getRoles())
+                .log("User registered");
+        String jwtToken = jwtAuthService.generateToken(Map.of("uid", user.getId()), user);
         return new AuthenticateResponse(
                 jwtToken,
                 new UserResponse(
@@ -92,9 +102,13 @@ public class AuthService {
             );
         } catch (BadCredentialsException e) {
             throw new IllegalArgumentException("Email or password invalid.");
+        } catch (AccountStatusException e) {
+            // Compte inactif, banni ou supprimé (User.isEnabled / isAccountNonLocked)
+            throw new IllegalArgumentException("This account is not active.");
         }
-        UserInfo user = userRepository.findByEmail(request.getEmail()).orElseThrow();
-        String jwtToken = jwtAuthService.generateToken(user);
+        // Déjà chargé par l'AuthenticationManager : servi par le cache
+        User user = userCache.findByEmail(request.getEmail()).orElseThrow();
+        String jwtToken = jwtAuthService.generateToken(Map.of("uid", user.getId()), user);
         return new AuthenticateResponse(
                 jwtToken,
                 new UserResponse(
@@ -110,7 +124,7 @@ public class AuthService {
 
     }
 
-    public UserInfo getOneUserByEmail(String email){
+    public User getOneUserByEmail(String email){
         return userRepository.findOneByEmail(email);
     }
 
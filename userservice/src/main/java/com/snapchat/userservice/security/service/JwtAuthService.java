@@ -1,7 +1,12 @@
 package com.snapchat.userservice.security.service;
 
-import com.traficandme.user_service_traficandme.user.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.snapchat.userservice.user.repository.UserRepository;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -15,6 +20,7 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
@@ -22,14 +28,66 @@ import java.util.function.Function;
 public class JwtAuthService {
     private UserRepository userRepository;
 
-    @Value("${jwt.secret}")
-    private String SECRET_KEY;
-
-    long JWT_VALIDITY = 5 * 60 * 60;
+    public static final long JWT_VALIDITY = 5 * 60 * 60;
+
+    // Clé HMAC et parser construits une fois : JwtParser est immuable et thread-safe
+    private final Key signingKey;
+    private final JwtParser parser;
+
+    // Tokens déjà vérifiés, indexés par le token complet (jamais par la seule signature)
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtAuthService(@Value("${app.jwt.secret}") String secretKey,
+                          @Value("${app.jwt.verified-cache-size:10000}") long verifiedCacheSize) {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+                        long remainingMs = verified.expiration() == null
+                                ? TimeUnit.SECONDS.toMillis(JWT_VALIDITY)
+                                : verified.expiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
 
+    /**
+     * Vérifie le token (signature + expiration) et renvoie sujet, rôle et dates en une passe.
+     * Un token déjà vérifié est servi depuis le cache tant qu'il n'a pas expiré.
+     * Lève une JwtException si le token est invalide ou expiré.
+     */
+    public VerifiedToken verify(String token) {
+        VerifiedToken cached = verifiedTokens.getIfPresent(token);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+        Claims claims = extractAllClaims(token);
+        VerifiedToken verified = new VerifiedToken(
+                claims.getSubject(),
+                claims.get("roles", String.class),
+                claims.getIssuedAt(),
+                claims.getExpiration()
+        );
+        verifiedTokens.put(token, verified);
+        return verified;
+    }
 
     public String extractUserName(String token) {
-        return extractClaims(token,Claims::getSubject);
+        return verify(token).subject();
     }
     public <T> T extractClaims(String token, Function<Claims,T> claimsResolver){
         final Claims claims = extractAllClaims(token);
@@ -37,37 +95,25 @@ public class JwtAuthService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .setSigningKey(getSignedKey())
-                .build()
+        return parser
                 .parseClaimsJws(token)
                 .getBody();
     }
 
     public boolean isTokenIsValidate(String token, UserDetails userDetails){
-        final String userName = extractUserName(token);
-        return (userName.equals(userDetails.getUsername()) && !isTokenIsExpired(token));
-    }
-
-    private boolean isTokenIsExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaims(token,Claims::getExpiration);
-    }
-
-    private Key getSignedKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+        try {
+            VerifiedToken verified = verify(token);
+            return verified.subject().equals(userDetails.getUsername()) && !verified.isExpired();
+        } catch (ExpiredJwtException e) {
+            return false;
+        }
     }
 
     public String generateToken(UserDetails userDetails){
         return generateToken(new HashMap<>(),userDetails);
     }
     public String generateToken(
-            Map<String, Claims> extraClaims,
+            Map<String, Object> extraClaims,
             UserDetails userDetails
     ){
 
@@ -76,17 +122,18 @@ public class JwtAuthService {
                 .findFirst()
                 .orElse("user");
 
-        Map<String, Object> claims = new HashMap<>();
+        // uid permet à la gateway de propager l'id utilisateur sans lire la table users
+        Map<String, Object> claims = new HashMap<>(extraClaims);
         claims.put("roles", role);
 
+        long now = System.currentTimeMillis();
         return Jwts
                 .builder()
                 .setClaims(claims)
                 .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + JWT_VALIDITY * 1000))
-                .signWith(getSignedKey(), SignatureAlgorithm.HS256)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + JWT_VALIDITY * 1000))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 }
-
@@ -0,0 +1,11 @@
+package com.snapchat.userservice.security.service;
+
+/**
+ * Le pool de hachage est saturé : la requête est refusée (429) plutôt que mise en attente.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
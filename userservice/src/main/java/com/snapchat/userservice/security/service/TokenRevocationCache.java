@@ -0,0 +1,74 @@
+package com.snapchat.userservice.security.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.snapchat.userservice.security.entity.TokenRevocation;
+import com.snapchat.userservice.security.repository.TokenRevocationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Registre des utilisateurs modifiés (statut, rôle, email, mot de passe, suppression), stocké
+ * dans la table token_revocations : il est partagé par toutes les instances et survit aux
+ * redémarrages. Un token émis avant la dernière modification n'est plus cru sur parole : le
+ * filtre JWT recharge alors l'utilisateur depuis la base.
+ * <p>
+ * Chaque instance garde la date lue (ou son absence) pendant security.revocation.cache-ttl
+ * pour ne pas interroger la base à chaque requête : une modification faite sur une autre
+ * instance y est prise en compte au plus tard après ce délai, immédiatement sur l'instance
+ * qui l'a faite.
+ */
+@Component
+public class TokenRevocationCache {
+
+    // Valeur en cache pour « aucune modification enregistrée »
+    private static final long NONE = 0L;
+
+    private final TokenRevocationRepository repository;
+    private final Cache<String, Long> changedAt;
+
+    public TokenRevocationCache(TokenRevocationRepository repository,
+                                @Value("${security.revocation.cache-max-size:100000}") long maxSize,
+                                @Value("${security.revocation.cache-ttl:5s}") Duration ttl) {
+        this.repository = repository;
+        this.changedAt = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public void markChanged(String email) {
+        if (email == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (repository.updateChangedAt(email, now) == 0) {
+            try {
+                repository.save(new TokenRevocation(email, now));
+            } catch (DataIntegrityViolationException e) {
+                // Insérée entre-temps par une autre instance
+                repository.updateChangedAt(email, now);
+            }
+        }
+        changedAt.put(email, now);
+        // Au-delà de la durée de vie d'un token, une modification ne révoque plus rien
+        repository.deleteChangedBefore(now - JwtAuthService.JWT_VALIDITY * 1000);
+    }
+
+    /**
+     * Vrai si l'utilisateur a changé après l'émission du token (ou si la date d'émission est inconnue
+     * alors qu'un changement est enregistré).
+     */
+    public boolean isChangedSince(String email, Date issuedAt) {
+        long changed = changedAt.get(email, key -> repository.findChangedAt(key).orElse(NONE));
+        if (changed == NONE) {
+            return false;
+        }
+        // iat est en secondes : on compare à la seconde près, en faveur du rechargement
+        return issuedAt == null || changed >= issuedAt.getTime();
+    }
+}
@@ -0,0 +1,17 @@
+package com.snapchat.userservice.security.service;
+
+import java.util.Date;
+
+/**
+ * Résultat d'une vérification de JWT : tout ce dont le filtre a besoin, extrait en une passe.
+ */
+public record VerifiedToken(
+        String subject,
+        String role,
+        Date issuedAt,
+        Date expiration
+) {
+    public boolean isExpired() {
+        return expiration != null && expiration.getTime() <= System.currentTimeMillis();
+    }
+}
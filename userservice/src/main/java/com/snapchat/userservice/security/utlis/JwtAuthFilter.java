@@ -1,6 +1,11 @@
 package com.snapchat.userservice.security.utlis;
 
-import com.traficandme.user_service_traficandme.security.service.JwtAuthService;
+import com.snapchat.identity.IdentityHeader;
+import com.snapchat.userservice.security.service.TokenRevocationCache;
+import com.snapchat.userservice.security.service.VerifiedToken;
+import com.snapchat.userservice.security.service.JwtAuthService;
+import com.snapchat.userservice.user.service.UserCache;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,25 +13,37 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.lang.NonNull;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
-    public JwtAuthFilter(JwtAuthService jwtAuthService, UserDetailsService userDetailsService){
+    public JwtAuthFilter(JwtAuthService jwtAuthService, UserDetailsService userDetailsService, TokenRevocationCache revocationCache, IdentityHeader identityHeader, UserCache userCache){
         this.jwtAuthService = jwtAuthService;
         this.userDetailsService= userDetailsService;
+        this.revocationCache = revocationCache;
+        this.identityHeader = identityHeader;
+        this.userCache = userCache;
     }
 
     private final JwtAuthService jwtAuthService;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationCache revocationCache;
+    private final IdentityHeader identityHeader;
+    private final UserCache userCache;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
@@ -34,29 +51,93 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                                     @NonNull FilterChain filterChain)
             throws ServletException, IOException
     {
+        // Requête passée par la gateway : le JWT y a déjà été vérifié, l'en-tête signé suffit
+        Optional<IdentityHeader.Identity> identity = identityHeader.verify(request.getHeader(IdentityHeader.NAME));
+        if (identity.isPresent()) {
+            IdentityHeader.Identity id = identity.get();
+            // iat du JWT d'origine, signé par la gateway avec le reste de l'identité
+            if (!authenticate(request, emailOf(id), id.role(), new Date(id.issuedAt() * 1000))) {
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                return;
+            }
+            filterChain.doFilter(request, response);
+            return;
+        }
+
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
         if(authHeader == null || !authHeader.startsWith("Bearer ")){
             filterChain.doFilter(request,response);
             return;
         }
         jwt = authHeader.substring(7);
-        userEmail = jwtAuthService.extractUserName(jwt);
-        if(userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null){
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-            if (jwtAuthService.isTokenIsValidate(jwt, userDetails)){
-                UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
-                authenticationToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
-                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
-            }
+
+        // Une seule vérification signature + expiration par requête (mise en cache par JwtAuthService)
+        final VerifiedToken token;
+        try {
+            token = jwtAuthService.verify(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (!authenticate(request, token.subject(), token.role(), token.issuedAt())) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
         }
         filterChain.doFilter(request, response);
     }
+
+    // Appel de service à service (storyservice) : seul l'id du lecteur est connu, l'email vient du cache
+    private String emailOf(IdentityHeader.Identity identity) {
+        if (!identity.email().isEmpty() || identity.userId() == null) {
+            return identity.email();
+        }
+        try {
+            return userCache.findById(Integer.valueOf(identity.userId())).map(user -> user.getEmail()).orElse(null);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Faux si le token ne vaut plus rien : utilisateur introuvable, ou désactivé / banni depuis
+     * l'émission du token (User reflète le statut). La requête est alors refusée en 401.
+     */
+    private boolean authenticate(HttpServletRequest request, String userEmail, String role, Date issuedAt) {
+        if (userEmail == null) {
+            return false;
+        }
+        if (SecurityContextHolder.getContext().getAuthentication() != null) {
+            return true;
+        }
+        UserDetails userDetails;
+        if (revocationCache.isChangedSince(userEmail, issuedAt)) {
+            // L'utilisateur a changé depuis l'émission du token : on relit la base
+            try {
+                userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+            } catch (UsernameNotFoundException e) {
+                return false;
+            }
+            if (!userDetails.isEnabled() || !userDetails.isAccountNonLocked()) {
+                return false;
+            }
+        } else {
+            // Chemin rapide : identité et rôle viennent du token, sans requête en base
+            userDetails = User.withUsername(userEmail)
+                    .password("")
+                    .authorities(role == null ? List.of() : List.of(new SimpleGrantedAuthority(role)))
+                    .build();
+        }
+        UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,
+                userDetails.getAuthorities()
+        );
+        authenticationToken.setDetails(
+                new WebAuthenticationDetailsSource().buildDetails(request)
+        );
+        SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+        return true;
+    }
 }
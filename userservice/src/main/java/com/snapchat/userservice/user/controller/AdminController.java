@@ -1,19 +1,28 @@
 package com.snapchat.userservice.user.controller;
 
 
-import com.traficandme.user_service_traficandme.common.ApiResponse;
-import com.traficandme.user_service_traficandme.user.dto.StatusUser;
-import com.traficandme.user_service_traficandme.user.dto.UserRequest;
-import com.traficandme.user_service_traficandme.user.dto.UserResponse;
-import com.traficandme.user_service_traficandme.user.service.AdminService;
-import com.traficandme.user_service_traficandme.user.service.UserService;
+import com.snapchat.userservice.common.ApiResponse;
+import com.snapchat.userservice.user.dto.StatusUser;
+import com.snapchat.userservice.user.dto.UserRequest;
+import com.snapchat.userservice.user.dto.UserResponse;
+import com.snapchat.userservice.user.service.AdminService;
+import com.snapchat.userservice.user.service.UserService;
+import com.snapchat.userservice.security.service.PasswordHashingBusyException;
+import com.snapchat.userservice.user.dto.UserFilter;
+import com.snapchat.userservice.user.dto.UserPage;
+import com.snapchat.userservice.user.service.UserExportService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
 @RestController
 @RequestMapping("/api/admin/users")
 @CrossOrigin(origins = "*")
@@ -24,9 +33,11 @@ public class AdminController {
 
     private  final UserService userService;
     private  final AdminService adminService;
-    public AdminController(UserService userService, AdminService adminService, PasswordEncoder passwordEncoder){
+    private  final UserExportService userExportService;
+    public AdminController(UserService userService, AdminService adminService, UserExportService userExportService){
         this.adminService = adminService;
         this.userService = userService;
+        this.userExportService = userExportService;
     }
 
     @PostMapping("create")
@@ -36,6 +47,10 @@ public class AdminController {
             UserResponse response = userService.createUser(request);
             ApiResponse<UserResponse> apiResponse = new ApiResponse<>("Created user", response);
             return ResponseEntity.ok(apiResponse);
+        } catch (PasswordHashingBusyException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new ApiResponse<>(e.getMessage(), null));
         } catch (RuntimeException e) {
             ApiResponse<UserResponse> errorResponse = new ApiResponse<>(e.getMessage(), null);
             return ResponseEntity.badRequest().body(errorResponse);
@@ -55,6 +70,46 @@ public class AdminController {
         }
     }
 
+    @GetMapping("search")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<ApiResponse<UserPage>> searchUsers(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String emailPrefix) {
+        try {
+            UserPage response = userService.searchUsers(UserFilter.of(status, role, emailPrefix), page, size, sort);
+            return ResponseEntity.ok(new ApiResponse<>("List users", response));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    // Export complet en flux (format=csv|ndjson), sans pagination ni liste en mémoire
+    @GetMapping("export")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String emailPrefix) {
+        UserFilter filter;
+        UserExportService.Format exportFormat;
+        try {
+            filter = UserFilter.of(status, role, emailPrefix);
+            exportFormat = UserExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean csv = exportFormat == UserExportService.Format.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users." + (csv ? "csv" : "ndjson") + "\"")
+                .body(out -> userExportService.export(filter, exportFormat, out));
+    }
+
     @PutMapping("update/{id}")
     //@PreAuthorize("hasRole('ROLE_ADMIN')")
     public ResponseEntity<ApiResponse<UserResponse>> updateUser(@PathVariable ("id") String userId,@Valid @RequestBody UserRequest request){
@@ -62,6 +117,10 @@ public class AdminController {
             UserResponse response = userService.updateUser(Integer.valueOf(userId),request);
             ApiResponse<UserResponse> apiResponse = new ApiResponse<>("Updated User", response);
             return ResponseEntity.ok(apiResponse);
+        } catch (PasswordHashingBusyException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new ApiResponse<>(e.getMessage(), null));
         } catch (RuntimeException e) {
             ApiResponse<UserResponse> errorResponse = new ApiResponse<>(e.getMessage(), null);
             return ResponseEntity.badRequest().body(errorResponse);
@@ -1,19 +1,19 @@
 package com.snapchat.userservice.user.controller;
 
 
-import com.traficandme.user_service_traficandme.common.ApiResponse;
-import com.traficandme.user_service_traficandme.user.dto.StatusUser;
-import com.traficandme.user_service_traficandme.user.dto.UserResponse;
-import com.traficandme.user_service_traficandme.user.entity.UserInfo;
-import com.traficandme.user_service_traficandme.user.service.UserService;
+import com.snapchat.userservice.common.ApiResponse;
+import com.snapchat.userservice.user.dto.StatusUser;
+import com.snapchat.userservice.user.dto.UserResponse;
+import com.snapchat.userservice.user.entity.User;
+import com.snapchat.userservice.user.service.UserService;
+import com.snapchat.userservice.user.dto.UserProfile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Map;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/users")
@@ -31,9 +31,18 @@ public class UserInfoController {
         return new ResponseEntity<>(user, HttpStatus.OK);
     }
 
+    // ?ids=1,2,3 : jusqu'à 300 ids, un seul aller-retour au lieu d'un getUser par id
+    @GetMapping("batch")
+    public ResponseEntity<ApiResponse<List<UserProfile>>> getUsers(@RequestParam("ids") List<Integer> ids){
+        try {
+            return ResponseEntity.ok(new ApiResponse<>("Users", userService.getProfiles(ids)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
 
     @PatchMapping("update-status")
-    public ResponseEntity<ApiResponse<UserInfo>> changeStatus(
+    public ResponseEntity<ApiResponse<User>> changeStatus(
             @RequestBody StatusUser status) {
         try {
             Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
@@ -43,19 +52,13 @@ public class UserInfoController {
             }
 
 
-            UserInfo updated = userService.changeStatusUser(status,userConnected);
+            User updated = userService.changeStatusUser(status,userConnected);
             return ResponseEntity.ok(new ApiResponse<>("Status changed", updated));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
         }
     }
 
-    @GetMapping("/info")
-    public Map<String, Object> userInfo(OAuth2AuthenticationToken authentication) {
-        // Return the user's attributes as a map
-        return authentication.getPrincipal().getAttributes();
-    }
-
     @GetMapping("/me")
     public ResponseEntity<ApiResponse<UserResponse>> getUSerConnected() {
         try {
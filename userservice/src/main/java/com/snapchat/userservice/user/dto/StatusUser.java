@@ -0,0 +1,8 @@
+package com.snapchat.userservice.user.dto;
+
+public enum StatusUser {
+    ACTIVE,
+    INACTIVE,
+    BANNED,
+    DELETED
+}
@@ -0,0 +1,28 @@
+package com.snapchat.userservice.user.dto;
+
+import com.snapchat.userservice.common.Role;
+
+import java.util.Locale;
+
+/**
+ * Critères de la liste admin ; un champ null n'est pas filtré.
+ * emailPattern est déjà prêt pour un LIKE préfixe (jokers échappés, % final).
+ */
+public record UserFilter(StatusUser status, Role role, String emailPattern) {
+
+    public static UserFilter of(String status, String role, String emailPrefix) {
+        return new UserFilter(
+                isBlank(status) ? null : StatusUser.valueOf(status.trim().toUpperCase(Locale.ROOT)),
+                isBlank(role) ? null : Role.valueOf(role.trim().toUpperCase(Locale.ROOT)),
+                isBlank(emailPrefix) ? null : escapeLike(emailPrefix.trim()) + "%"
+        );
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
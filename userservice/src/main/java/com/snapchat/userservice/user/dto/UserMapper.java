@@ -1,7 +1,7 @@
 package com.snapchat.userservice.user.dto;
 
-import com.traficandme.user_service_traficandme.common.Role;
-import com.traficandme.user_service_traficandme.user.entity.UserInfo;
+import com.snapchat.userservice.common.Role;
+import com.snapchat.userservice.user.entity.User;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
@@ -13,8 +13,8 @@ public class UserMapper {
         this.passwordEncoder = passwordEncoder;
     }
 
-    public UserInfo toModel(UserRequest request) {
-        return new UserInfo(
+    public User toModel(UserRequest request) {
+        return new User(
                 request.id(),
                 request.firstName(),
                 request.lastName(),
@@ -25,7 +25,7 @@ public class UserMapper {
 
     }
 
-    public UserResponse toResponse(UserInfo userInfo) {
+    public UserResponse toResponse(User userInfo) {
         return new UserResponse(
                 userInfo.getId(),
                 userInfo.getFirstName() +" "+ userInfo.getLastName(),
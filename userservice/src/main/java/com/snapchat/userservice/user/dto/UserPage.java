@@ -0,0 +1,12 @@
+package com.snapchat.userservice.user.dto;
+
+import java.util.List;
+
+public record UserPage(
+        List<UserResponse> users,
+        int page,
+        int size,
+        long totalElements,
+        int totalPages
+) {
+}
@@ -0,0 +1,11 @@
+package com.snapchat.userservice.user.dto;
+
+/**
+ * Profil minimal pour afficher l'auteur d'un message ou d'une story.
+ */
+public record UserProfile(
+        Integer id,
+        String username,
+        String status
+) {
+}
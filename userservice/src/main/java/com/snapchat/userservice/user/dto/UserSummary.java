@@ -0,0 +1,31 @@
+package com.snapchat.userservice.user.dto;
+
+import com.snapchat.userservice.common.Role;
+
+import java.util.Date;
+
+/**
+ * Projection des colonnes affichées dans l'admin : jamais le hash du mot de passe ni l'entité gérée.
+ */
+public record UserSummary(
+        Integer id,
+        String firstName,
+        String lastName,
+        String email,
+        Role role,
+        StatusUser status,
+        Date createDate,
+        Date updateDate
+) {
+    public UserResponse toResponse() {
+        return new UserResponse(
+                id,
+                firstName + " " + lastName,
+                email,
+                role.name(),
+                status.name(),
+                createDate,
+                updateDate
+        );
+    }
+}
@@ -1,6 +1,7 @@
 package com.snapchat.userservice.user.entity;
 
 import com.snapchat.userservice.common.Role;
+import com.snapchat.userservice.user.dto.StatusUser;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -18,7 +19,17 @@ import java.util.List;
 @Data
 @AllArgsConstructor
 @Builder
-@Table(name = "users")
+@Table(name = "users",
+        // L'unicité de l'email est garantie par la base : l'inscription est un seul INSERT.
+        // Sur une base existante, dédoublonner d'abord avec db/users_email_unique.sql (voir README)
+        uniqueConstraints = @UniqueConstraint(name = "uk_users_email", columnNames = "email"),
+        indexes = {
+        // Liste admin : filtre par rôle, tri par date de création (le préfixe d'email utilise uk_users_email)
+        @Index(name = "idx_users_roles_id", columnList = "roles, id"),
+        // Recherche et export admin filtrés par statut, triés par id ; comptage par statut
+        @Index(name = "idx_users_status_id", columnList = "status, id"),
+        @Index(name = "idx_users_create_date", columnList = "create_date, id")
+})
 public class User implements UserDetails {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -35,6 +46,9 @@ public class User implements UserDetails {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private Role roles;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StatusUser status;
     @Transient
     private String pseudo;
 
@@ -53,6 +67,9 @@ public class User implements UserDetails {
 
     @PrePersist
     protected void onCreate() {
+        if (this.status == null) {
+            this.status = StatusUser.ACTIVE;
+        }
         this.createDate = new Date();
         this.updateDate = new Date();
     }
@@ -64,9 +81,12 @@ public class User implements UserDetails {
 
     public User(Integer id, String firstName, String lastName, String email, String password, Role roles) {
         this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
         this.email = email;
         this.password = password;
         this.roles = roles;
+        this.status = StatusUser.ACTIVE;
     }
 
 
@@ -88,7 +108,7 @@ public class User implements UserDetails {
 
     @Override
     public boolean isAccountNonLocked() {
-        return true;
+        return status != StatusUser.BANNED;
     }
 
     @Override
@@ -98,17 +118,14 @@ public class User implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return UserDetails.super.isEnabled();
+        // INACTIVE, BANNED et DELETED ne peuvent ni se connecter ni utiliser un token rechargé
+        return status == null || status == StatusUser.ACTIVE;
     }
 
-    public int getId() {
+    public Integer getId() {
         return id;
     }
 
-    public void setId(int id) {
-        this.id = id;
-    }
-
     public String getFirstName() {
         return firstName;
     }
@@ -157,6 +174,14 @@ public class User implements UserDetails {
         this.roles = roles;
     }
 
+    public StatusUser getStatus() {
+        return status;
+    }
+
+    public void setStatus(StatusUser status) {
+        this.status = status;
+    }
+
     public String getPseudo() {
         return pseudo;
     }
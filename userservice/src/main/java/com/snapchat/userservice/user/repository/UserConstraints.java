@@ -0,0 +1,30 @@
+package com.snapchat.userservice.user.repository;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Noms des contraintes de la table users, pour reconnaître la violation renvoyée par MySQL.
+ */
+public final class UserConstraints {
+
+    public static final String EMAIL_UNIQUE = "uk_users_email";
+
+    private UserConstraints() {
+    }
+
+    /**
+     * Vrai si l'insertion ou la mise à jour a échoué parce que l'email existe déjà.
+     */
+    public static boolean isDuplicateEmail(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof org.hibernate.exception.ConstraintViolationException violation
+                    && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase().contains(EMAIL_UNIQUE);
+            }
+            if (cause.getMessage() != null && cause.getMessage().toLowerCase().contains(EMAIL_UNIQUE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
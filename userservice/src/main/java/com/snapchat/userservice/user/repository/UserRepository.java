@@ -1,16 +1,61 @@
 package com.snapchat.userservice.user.repository;
 
-import com.traficandme.user_service_traficandme.user.dto.StatusUser;
-import com.traficandme.user_service_traficandme.user.entity.UserInfo;
+import com.snapchat.userservice.common.Role;
+import com.snapchat.userservice.user.dto.UserSummary;
+import com.snapchat.userservice.user.dto.StatusUser;
+import com.snapchat.userservice.user.entity.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface UserRepository  extends JpaRepository<UserInfo, Integer> {
-    Optional<UserInfo> findByEmail(String email);
+public interface UserRepository  extends JpaRepository<User, Integer> {
+    Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
-    UserInfo findOneByEmail(String email);
+    User findOneByEmail(String email);
     long countByStatus(StatusUser status);
+
+    String SUMMARY = "select new com.snapchat.userservice.user.dto.UserSummary("
+            + "u.id, u.firstName, u.lastName, u.email, u.roles, u.status, u.createDate, u.updateDate) "
+            + "from User u ";
+
+    // Filtres optionnels : un paramètre null désactive son critère
+    String FILTERS = "where (:status is null or u.status = :status) "
+            + "and (:role is null or u.roles = :role) "
+            + "and (:emailPrefix is null or u.email like :emailPrefix) ";
+
+    @Query(value = SUMMARY + FILTERS,
+            countQuery = "select count(u) from User u " + FILTERS)
+    Page<UserSummary> searchSummaries(@Param("status") StatusUser status,
+                                      @Param("role") Role role,
+                                      @Param("emailPrefix") String emailPrefix,
+                                      Pageable pageable);
+
+    @Query(SUMMARY + "order by u.id")
+    List<UserSummary> findAllSummaries();
+
+    /**
+     * Lecture en flux pour l'export : Integer.MIN_VALUE demande au driver MySQL de streamer les lignes
+     * au lieu de charger tout le résultat. À consommer dans une transaction et à fermer.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query(SUMMARY + FILTERS + "order by u.id")
+    Stream<UserSummary> streamSummaries(@Param("status") StatusUser status,
+                                        @Param("role") Role role,
+                                        @Param("emailPrefix") String emailPrefix);
 }
@@ -1,10 +1,12 @@
 package com.snapchat.userservice.user.service;
 
-import com.traficandme.user_service_traficandme.user.dto.StatusUser;
-import com.traficandme.user_service_traficandme.user.dto.UserMapper;
-import com.traficandme.user_service_traficandme.user.dto.UserResponse;
-import com.traficandme.user_service_traficandme.user.entity.UserInfo;
-import com.traficandme.user_service_traficandme.user.repository.UserRepository;
+import com.snapchat.userservice.friend.service.FriendService;
+import com.snapchat.userservice.security.service.TokenRevocationCache;
+import com.snapchat.userservice.user.dto.StatusUser;
+import com.snapchat.userservice.user.dto.UserMapper;
+import com.snapchat.userservice.user.dto.UserResponse;
+import com.snapchat.userservice.user.entity.User;
+import com.snapchat.userservice.user.repository.UserRepository;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -15,17 +17,26 @@ public class AdminService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationCache revocationCache;
+    private final UserCache userCache;
+    private final FriendService friendService;
 
-    public AdminService ( UserRepository userRepository, UserMapper userMapper, PasswordEncoder passwordEncoder) {
+    public AdminService ( UserRepository userRepository, UserMapper userMapper, PasswordEncoder passwordEncoder, TokenRevocationCache revocationCache, UserCache userCache, FriendService friendService) {
         this.userRepository = userRepository;
         this.userMapper= userMapper;
         this.passwordEncoder =passwordEncoder;
+        this.revocationCache = revocationCache;
+        this.userCache = userCache;
+        this.friendService = friendService;
     }
 
     public boolean deleteUserForAnAdmin(Integer id){
-        Optional<UserInfo> user = userRepository.findById(id);
+        Optional<User> user = userRepository.findById(id);
         if(user.isPresent()){
+            revocationCache.markChanged(user.get().getEmail());
+            friendService.removeUser(id);
             userRepository.delete(user.get());
+            userCache.invalidate(user.get());
             return true;
         }
         return false;
@@ -36,15 +47,19 @@ public class AdminService {
             throw new IllegalArgumentException("Status \"" + newStatus + "\" does not exist");
         }
 
-        UserInfo user = userRepository.findById(id).orElseThrow(() ->
+        User user = userRepository.findById(id).orElseThrow(() ->
                 new RuntimeException("User not found with id: " + id));
 
+        revocationCache.markChanged(user.getEmail());
+        userCache.invalidate(user);
         user.setStatus(newStatus);
         user.setUpdateDate(new Date());
 
 
         ///TODO FAIRE LA MEMEM CHOSE AVEC LE ROUTE CHANGE le EMAIL "Anonymous User"
         if (newStatus == StatusUser.DELETED) {
+            // Compte anonymisé : il disparaît aussi des listes d'amis
+            friendService.removeUser(user.getId());
             String randomSuffix = UUID.randomUUID().toString().substring(0, 8);
 
             String originalUsername = user.getUsername();
@@ -66,6 +81,10 @@ public class AdminService {
             //reportRepository.saveAll(userReports);
         }
 
+        // Le changement n'était jamais sauvegardé : la relecture renvoyait l'ancien statut
+        userRepository.save(user);
+        userCache.invalidate(user);
+
        UserResponse userCanceled = userRepository.findById(user.getId())
                 .map(this.userMapper::toResponse)
                 .orElseThrow();;
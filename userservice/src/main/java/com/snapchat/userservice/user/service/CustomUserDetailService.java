@@ -1,8 +1,7 @@
 package com.snapchat.userservice.user.service;
 
-import com.traficandme.user_service_traficandme.user.entity.UserInfo;
+import com.snapchat.userservice.user.entity.User;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -21,11 +20,11 @@ public class CustomUserDetailService implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        UserInfo user = userService.findUser(username);
+        User user = userService.findUser(username);
         if (user == null){
             throw new UsernameNotFoundException("l'utilisateur "+username +" n\'existe pas");
         }
-        return new User(user.getEmail(), user.getPassword(),
+        return new org.springframework.security.core.userdetails.User(user.getEmail(), user.getPassword(),
                 Collections.singletonList(new SimpleGrantedAuthority(user.getRoles().name())));
     }
 }
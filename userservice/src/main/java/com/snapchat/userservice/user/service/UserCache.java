@@ -0,0 +1,132 @@
+package com.snapchat.userservice.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.snapchat.userservice.user.entity.User;
+import com.snapchat.userservice.user.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Cache des utilisateurs chauds, indexé par id et par email.
+ * Le cache garde une copie détachée de chaque entité chargée et rend une nouvelle copie à
+ * chaque lecture : un appelant peut modifier ce qu'il reçoit sans toucher au cache ni aux
+ * autres requêtes, et aucune entité d'un contexte de persistance n'est partagée. Les chemins
+ * d'écriture relisent l'utilisateur depuis le repository puis appellent {@link #invalidate(User)}
+ * avant et après la sauvegarde (l'ancien email d'un utilisateur renommé est ainsi purgé).
+ * Les utilisateurs absents ne sont pas mis en cache.
+ */
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final Cache<Integer, User> byId;
+    private final Cache<String, User> byEmail;
+
+    public UserCache(UserRepository userRepository,
+                     @Value("${users.cache.max-size:10000}") long maxSize,
+                     @Value("${users.cache.ttl:5m}") Duration ttl,
+                     MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.byEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // Taux de hit (cache.gets), durée de chargement (cache.load.duration), évictions
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "users.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, byEmail, "users.byEmail");
+    }
+
+    public Optional<User> findById(Integer id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        User user = byId.get(id, key -> userRepository.findById(key).map(UserCache::copyOf).orElse(null));
+        if (user != null) {
+            byEmail.put(user.getEmail(), user);
+        }
+        return Optional.ofNullable(user).map(UserCache::copyOf);
+    }
+
+    public Optional<User> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        User user = byEmail.get(email, key -> userRepository.findByEmail(key).map(UserCache::copyOf).orElse(null));
+        if (user != null) {
+            byId.put(user.getId(), user);
+        }
+        return Optional.ofNullable(user).map(UserCache::copyOf);
+    }
+
+    /**
+     * Utilisateurs connus parmi les ids demandés ; les ids absents du cache sont chargés
+     * en une seule requête IN. Les ids inexistants sont absents du résultat.
+     */
+    public Map<Integer, User> findAllById(Collection<Integer> ids) {
+        Map<Integer, User> users = byId.getAll(ids, missing -> {
+            Map<Integer, User> loaded = new HashMap<>();
+            for (User user : userRepository.findAllById(new ArrayList<Integer>(missing))) {
+                loaded.put(user.getId(), copyOf(user));
+            }
+            return loaded;
+        });
+        Map<Integer, User> copies = new HashMap<>(users.size());
+        users.forEach((id, user) -> {
+            byEmail.put(user.getEmail(), user);
+            copies.put(id, copyOf(user));
+        });
+        return copies;
+    }
+
+    public void invalidate(User user) {
+        if (user == null) {
+            return;
+        }
+        byId.invalidate(user.getId());
+        if (user.getEmail() != null) {
+            byEmail.invalidate(user.getEmail());
+        }
+    }
+
+    public void invalidate(Integer id, String email) {
+        if (id != null) {
+            byId.invalidate(id);
+        }
+        if (email != null) {
+            byEmail.invalidate(email);
+        }
+    }
+
+    private static User copyOf(User user) {
+        return User.builder()
+                .id(user.getId())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .email(user.getEmail())
+                .password(user.getPassword())
+                .providerId(user.getProviderId())
+                .roles(user.getRoles())
+                .status(user.getStatus())
+                .pseudo(user.getPseudo())
+                .createDate(user.getCreateDate() == null ? null : new Date(user.getCreateDate().getTime()))
+                .updateDate(user.getUpdateDate() == null ? null : new Date(user.getUpdateDate().getTime()))
+                .build();
+    }
+}
@@ -0,0 +1,115 @@
+package com.snapchat.userservice.user.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.snapchat.userservice.user.dto.UserFilter;
+import com.snapchat.userservice.user.dto.UserResponse;
+import com.snapchat.userservice.user.dto.UserSummary;
+import com.snapchat.userservice.user.repository.UserRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.TimeZone;
+import java.util.stream.Stream;
+
+/**
+ * Export admin des utilisateurs en CSV ou NDJSON, en mémoire constante :
+ * les lignes sont lues en flux depuis MySQL et écrites au fil de l'eau, une projection à la fois.
+ */
+@Service
+public class UserExportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final String CSV_HEADER = "id,username,email,role,status,createDate,updateDate\n";
+
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    public UserExportService(UserRepository userRepository, ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public void export(UserFilter filter, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        try (Stream<UserSummary> rows = userRepository.streamSummaries(filter.status(), filter.role(), filter.emailPattern())) {
+            if (format == Format.CSV) {
+                writeCsv(rows.iterator(), writer);
+            } else {
+                writeNdjson(rows.iterator(), writer);
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeCsv(Iterator<UserSummary> rows, Writer writer) throws IOException {
+        SimpleDateFormat iso = isoFormat();
+        writer.write(CSV_HEADER);
+        while (rows.hasNext()) {
+            UserResponse user = rows.next().toResponse();
+            writer.write(String.valueOf(user.id()));
+            writer.write(',');
+            writer.write(csv(user.username()));
+            writer.write(',');
+            writer.write(csv(user.email()));
+            writer.write(',');
+            writer.write(user.role());
+            writer.write(',');
+            writer.write(user.status());
+            writer.write(',');
+            writer.write(format(iso, user.createDate()));
+            writer.write(',');
+            writer.write(format(iso, user.updateDate()));
+            writer.write('\n');
+        }
+    }
+
+    private void writeNdjson(Iterator<UserSummary> rows, Writer writer) throws IOException {
+        // Le writer partagé ne doit être ni fermé ni vidé par Jackson après chaque ligne
+        var lineWriter = objectMapper.writerFor(UserResponse.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        while (rows.hasNext()) {
+            lineWriter.writeValue(writer, rows.next().toResponse());
+            writer.write('\n');
+        }
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        // Une cellule commençant par = + - @ serait interprétée comme formule par un tableur
+        if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        return quote ? "\"" + value.replace("\"", "\"\"") + "\"" : value;
+    }
+
+    private static String format(SimpleDateFormat iso, Date date) {
+        return date == null ? "" : iso.format(date);
+    }
+
+    private static SimpleDateFormat isoFormat() {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format;
+    }
+}
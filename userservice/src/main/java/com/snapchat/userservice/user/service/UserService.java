@@ -1,53 +1,149 @@
 package com.snapchat.userservice.user.service;
 
 
-import com.traficandme.user_service_traficandme.common.Role;
-import com.traficandme.user_service_traficandme.user.dto.StatusUser;
-import com.traficandme.user_service_traficandme.user.dto.UserMapper;
-import com.traficandme.user_service_traficandme.user.dto.UserRequest;
-import com.traficandme.user_service_traficandme.user.dto.UserResponse;
-import com.traficandme.user_service_traficandme.user.entity.UserInfo;
-import com.traficandme.user_service_traficandme.user.repository.UserRepository;
+import com.snapchat.userservice.common.UserValidator;
+import com.snapchat.userservice.friend.service.FriendService;
+import com.snapchat.userservice.security.service.TokenRevocationCache;
+import com.snapchat.userservice.user.dto.UserFilter;
+import com.snapchat.userservice.user.dto.UserPage;
+import com.snapchat.userservice.user.dto.UserProfile;
+import com.snapchat.userservice.user.dto.UserSummary;
+import com.snapchat.userservice.user.repository.UserConstraints;
+import com.snapchat.userservice.common.Role;
+import com.snapchat.userservice.user.dto.StatusUser;
+import com.snapchat.userservice.user.dto.UserMapper;
+import com.snapchat.userservice.user.dto.UserRequest;
+import com.snapchat.userservice.user.dto.UserResponse;
+import com.snapchat.userservice.user.entity.User;
+import com.snapchat.userservice.user.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
 public class UserService {
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationCache revocationCache;
+    private final UserValidator userValidator;
+    private final UserCache userCache;
+    private final FriendService friendService;
+
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_BATCH_IDS = 300;
+    private static final Set<String> SORTABLE = Set.of("id", "email", "lastName", "createDate", "updateDate");
 
-    public UserService (UserRepository userRepository,UserMapper userMapper,PasswordEncoder passwordEncoder) {
+    public UserService (UserRepository userRepository,UserMapper userMapper,PasswordEncoder passwordEncoder,TokenRevocationCache revocationCache,UserValidator userValidator,UserCache userCache,FriendService friendService) {
         this.userRepository = userRepository;
         this.userMapper= userMapper;
         this.passwordEncoder =passwordEncoder;
+        this.revocationCache = revocationCache;
+        this.userValidator = userValidator;
+        this.userCache = userCache;
+        this.friendService = friendService;
     }
 
-    public UserInfo findUser(String Username){
-        return userRepository.findByEmail(Username).orElseThrow();
+    public User findUser(String Username){
+        return userCache.findByEmail(Username).orElseThrow();
     }
 
     public List<UserResponse> getAllUsers(){
-        return userRepository.findAll()
-                .stream().map(this.userMapper::toResponse)
+        return userRepository.findAllSummaries()
+                .stream().map(UserSummary::toResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Page de la liste admin, lue par projection (aucune entité ni hash de mot de passe chargé).
+     */
+    public UserPage searchUsers(UserFilter filter, int page, int size, String sort) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        Pageable pageable = PageRequest.of(Math.max(page, 0), pageSize, parseSort(sort));
+        Page<UserSummary> result = userRepository.searchSummaries(
+                filter.status(), filter.role(), filter.emailPattern(), pageable);
+        return new UserPage(
+                result.getContent().stream().map(UserSummary::toResponse).toList(),
+                result.getNumber(),
+                result.getSize(),
+                result.getTotalElements(),
+                result.getTotalPages()
+        );
+    }
+
+    // "champ" ou "champ,asc|desc" ; seuls les champs indexés ou bon marché sont triables
+    private static Sort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.by(Sort.Direction.ASC, "id");
+        }
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!SORTABLE.contains(property)) {
+            throw new IllegalArgumentException("Unsupported sort: " + property);
+        }
+        Sort.Direction direction = parts.length > 1 && parts[1].trim().equalsIgnoreCase("desc")
+                ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return Sort.by(direction, property).and(Sort.by(direction, "id"));
+    }
+
     public UserResponse getUserById(Integer id){
-        return userRepository.findById(id)
+        return userCache.findById(id)
                 .map(this.userMapper::toResponse)
                 .orElseThrow();
     }
 
+    /**
+     * Profils pour hydrater une liste d'ids (expéditeurs, auteurs de stories) en un aller-retour.
+     * Ids dédoublonnés, ordre de la requête conservé, ids inconnus ignorés.
+     */
+    public List<UserProfile> getProfiles(List<Integer> ids) {
+        Set<Integer> unique = new LinkedHashSet<>();
+        for (Integer id : ids) {
+            if (id != null) {
+                unique.add(id);
+            }
+        }
+        if (unique.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_IDS + " ids per request.");
+        }
+        if (unique.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, User> users = userCache.findAllById(unique);
+        List<UserProfile> profiles = new ArrayList<>(users.size());
+        for (Integer id : unique) {
+            User user = users.get(id);
+            if (user != null) {
+                profiles.add(new UserProfile(
+                        user.getId(),
+                        user.getFirstName() + " " + user.getLastName(),
+                        user.getStatus().name()));
+            }
+        }
+        return profiles;
+    }
+
     public UserResponse getUserByEmail(String email){
-        return userRepository.findByEmail(email)
+        return userCache.findByEmail(email)
                 .map(this.userMapper::toResponse)
                 .orElseThrow();
     }
@@ -58,21 +154,9 @@ public class UserService {
         if (isNullOrEmpty(request.email())) throw new IllegalArgumentException("Email is required.");
         if (isNullOrEmpty(request.password())) throw new IllegalArgumentException("Password is required.");
 
-        if (request.password().length() < 8) {
-            throw new IllegalArgumentException("Password must be at least 8 characters long.");
-        }
-        if (!Pattern.compile(".*[0-9].*").matcher(request.password()).matches()) {
-            throw new IllegalArgumentException("Password must contain at least one digit.");
-        }
-        if (!Pattern.compile(".*[!@#$%^&*(),.?\":{}|<>].*").matcher(request.password()).matches()) {
-            throw new IllegalArgumentException("Password must contain at least one special character.");
-        }
-
-        if (userRepository.existsByEmail(request.email())) {
-            throw new IllegalArgumentException("Email is already in use.");
-        }
+        userValidator.validatePassword(request.password());
 
-        UserInfo user = new UserInfo(
+        User user = new User(
                 null,
                 request.firstName(),
                 request.lastName(),
@@ -81,10 +165,12 @@ public class UserService {
                 Role.valueOf(request.role())
         );
 
-        userRepository.save(user);
+        saveUnique(user);
 
-        System.out.println("Saved User Role: " + user.getRoles());
-        System.out.println("Saved User Authorities: " + user.getAuthorities());
+        log.atInfo()
+                .addKeyValue("userId", user.getId())
+                .addKeyValue("role", user.getRoles())
+                .log("User created");
         return new UserResponse(
                         user.getId(),
                         user.getFirstName() + " " + user.getLastName(),
@@ -97,7 +183,11 @@ public class UserService {
     }
 
     public void deleteUser(Integer id){
+        Optional<User> user = userRepository.findById(id);
+        user.ifPresent(u -> revocationCache.markChanged(u.getEmail()));
+        friendService.removeUser(id);
         userRepository.deleteById(id);
+        user.ifPresent(userCache::invalidate);
     }
 
     public UserResponse updateUser(Integer id, UserRequest request) {
@@ -110,22 +200,15 @@ public class UserService {
         if (isNullOrEmpty(request.email())) throw new IllegalArgumentException("Email is required.");
         if (isNullOrEmpty(request.role())) throw new IllegalArgumentException("Role is required.");
 
-        if (!user.getEmail().equals(request.email()) && userRepository.existsByEmail(request.email())) {
-            throw new IllegalArgumentException("Email is already in use.");
-        }
+        // Les tokens émis avant cette modification repasseront par la base
+        revocationCache.markChanged(user.getEmail());
+        String previousEmail = user.getEmail();
+        userCache.invalidate(id, previousEmail);
 
         String updatedPassword = user.getPassword();
         if (!isNullOrEmpty(request.password())) {
-            if (request.password().length() < 8) {
-                throw new IllegalArgumentException("Password must be at least 8 characters long.");
-            }
-            if (!Pattern.compile(".*[0-9].*").matcher(request.password()).matches()) {
-                throw new IllegalArgumentException("Password must contain at least one digit.");
-            }
-            if (!Pattern.compile(".*[!@#$%^&*(),.?\":{}|<>].*").matcher(request.password()).matches()) {
-                throw new IllegalArgumentException("Password must contain at least one special character.");
-            }
-            updatedPassword = request.password();
+            userValidator.validatePassword(request.password());
+            updatedPassword = passwordEncoder.encode(request.password());
         }
 
         user.setFirstName(request.firstName());
@@ -138,34 +221,58 @@ public class UserService {
             user.setStatus(StatusUser.valueOf(request.status().toUpperCase()));
         }
 
-        userRepository.save(user);
+        // Un changement d'email vers une adresse déjà prise est rejeté par l'index unique
+        try {
+            saveUnique(user);
+        } finally {
+            // Seconde invalidation : une lecture concurrente a pu remettre l'ancienne version en cache
+            userCache.invalidate(id, previousEmail);
+            userCache.invalidate(id, request.email());
+        }
 
         return userMapper.toResponse(user);
     }
 
-    public void mergeUser(UserInfo userToUpdate, UserRequest user){
+    private void saveUnique(User user) {
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (UserConstraints.isDuplicateEmail(e)) {
+                throw new IllegalArgumentException("Email is already in use.");
+            }
+            throw e;
+        }
+    }
+
+    public void mergeUser(User userToUpdate, UserRequest user){
+        userCache.invalidate(userToUpdate.getId(), userToUpdate.getEmail());
         userToUpdate.setFirstName(user.firstName());
         userToUpdate.setLastName(user.lastName());
         userToUpdate.setEmail(user.email());
         userToUpdate.setRoles(Role.valueOf(user.role()));
         userToUpdate.setPassword(userToUpdate.getPassword());
         userRepository.save(userToUpdate);
+        userCache.invalidate(userToUpdate);
     }
 
-    public UserInfo changeStatusUser(StatusUser newStatus,UserResponse userConnected) {
+    public User changeStatusUser(StatusUser newStatus,UserResponse userConnected) {
 
         if (newStatus == null || !EnumSet.allOf(StatusUser.class).contains(newStatus)) {
             throw new IllegalArgumentException("Status \"" + newStatus + "\" does not exist");
         }
 
-        UserInfo user = userRepository.findById(userConnected.id()).orElseThrow(() ->
+        User user = userRepository.findById(userConnected.id()).orElseThrow(() ->
                 new RuntimeException("User not found with id: " + userConnected.id()));
 
+        revocationCache.markChanged(user.getEmail());
+        userCache.invalidate(user);
         user.setStatus(newStatus);
         user.setUpdateDate(new Date());
 
         ///TODO FAIRE LA MEMEM CHOSE AVEC LE ROUTE CHANGE  LE EMAIL  AVEC "Anonymous User"
         if (newStatus == StatusUser.DELETED) {
+            // Compte anonymisé : il disparaît aussi des listes d'amis
+            friendService.removeUser(user.getId());
             String randomSuffix = UUID.randomUUID().toString().substring(0, 8);
 
             String originalUsername = user.getUsername();
@@ -185,10 +292,12 @@ public class UserService {
             }*/
         }
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userCache.invalidate(saved);
+        return saved;
     }
 
-    public UserInfo getOneUserByEmail(String email){
+    public User getOneUserByEmail(String email){
         return userRepository.findOneByEmail(email);
     }
 
@@ -198,7 +307,7 @@ public class UserService {
 
     /*
     public void softDeleteUser(String email){
-        Optional<UserInfo> user = userRepository.findByEmail(email);
+        Optional<User> user = userRepository.findByEmail(email);
         if(user.isPresent()){
             user.get().setFlSup("N");
             userRepository.save(user.get());
@@ -0,0 +1,24 @@
+-- Migration manuelle (MySQL 8) pour les bases créées avant uk_users_email.
+-- ddl-auto: update ne sait qu'ajouter la contrainte : s'il reste des emails en double,
+-- l'ALTER échoue, Hibernate se contente de le journaliser et l'unicité n'est pas garantie.
+-- À lancer une fois, service arrêté, avant de déployer la version qui porte la contrainte.
+
+-- 1. Comptes en double (comparaison selon la collation de la colonne, insensible à la casse par défaut)
+SELECT email, COUNT(*) AS accounts, MIN(id) AS kept_id
+FROM users
+GROUP BY email
+HAVING COUNT(*) > 1;
+
+-- 2. Le plus ancien compte garde l'adresse ; les autres sont renommés et désactivés, rien n'est supprimé
+UPDATE users u
+JOIN (SELECT email, MIN(id) AS kept_id
+      FROM users
+      GROUP BY email
+      HAVING COUNT(*) > 1) d
+  ON u.email = d.email AND u.id <> d.kept_id
+SET u.email = CONCAT(u.email, '.duplicate-', u.id),
+    u.status = 'INACTIVE';
+
+-- 3. Contrainte et index attendus par l'entité User
+ALTER TABLE users ADD CONSTRAINT uk_users_email UNIQUE (email);
+CREATE INDEX idx_users_status_id ON users (status, id);
@@ -0,0 +1,102 @@
+package com.snapchat.userservice.friend.controller;
+
+import com.snapchat.identity.IdentityHeader;
+import com.snapchat.userservice.friend.service.FriendService;
+import com.snapchat.userservice.security.config.SecurityConfiguration;
+import com.snapchat.userservice.security.service.JwtAuthService;
+import com.snapchat.userservice.security.service.TokenRevocationCache;
+import com.snapchat.userservice.user.dto.UserResponse;
+import com.snapchat.userservice.user.service.UserCache;
+import com.snapchat.userservice.user.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(FriendController.class)
+@Import({SecurityConfiguration.class, FriendControllerTest.Identity.class})
+class FriendControllerTest {
+
+    static final IdentityHeader IDENTITY_HEADER = new IdentityHeader("test-identity-secret-0123456789abcdef");
+
+    @TestConfiguration
+    static class Identity {
+        @Bean
+        IdentityHeader identityHeader() {
+            return IDENTITY_HEADER;
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private FriendService friendService;
+    @MockitoBean
+    private UserService userService;
+    @MockitoBean
+    private JwtAuthService jwtAuthService;
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+    @MockitoBean
+    private TokenRevocationCache revocationCache;
+    @MockitoBean
+    private UserCache userCache;
+
+    // Carol (3) n'est pas amie d'Alice (1)
+    @BeforeEach
+    void setUp() {
+        when(userService.getUserByEmail("carol@test.com"))
+                .thenReturn(new UserResponse(3, "carol", "carol@test.com", "USER", "ACTIVE", null, null));
+        when(friendService.canSeeFriendsOf(3, 1)).thenReturn(false);
+        when(friendService.canSeeFriendsOf(3, 3)).thenReturn(true);
+    }
+
+    private static String carol() {
+        long now = System.currentTimeMillis() / 1000;
+        return IDENTITY_HEADER.sign(new IdentityHeader.Identity("3", "carol@test.com", "ROLE_USER", now, now + 60));
+    }
+
+    @Test
+    void graphOfANonFriendIsForbiddenOnEveryRoute() throws Exception {
+        for (String path : List.of("/api/friends/1", "/api/friends/1/is-friend/2",
+                "/api/friends/1/mutual/2", "/api/friends/1/among?ids=2,4")) {
+            mockMvc.perform(get(path).header(IdentityHeader.NAME, carol()))
+                    .andExpect(status().isForbidden());
+        }
+        verify(friendService, never()).getFriendIds(anyInt());
+        verify(friendService, never()).areFriends(anyInt(), anyInt());
+        verify(friendService, never()).getMutualFriendIds(anyInt(), anyInt());
+        verify(friendService, never()).filterFriends(anyInt(), any());
+    }
+
+    @Test
+    void graphRoutesRequireAuthentication() throws Exception {
+        mockMvc.perform(get("/api/friends/1/among?ids=2"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void ownGraphIsReadable() throws Exception {
+        when(friendService.filterFriends(3, List.of(2, 4))).thenReturn(List.of(4));
+
+        mockMvc.perform(get("/api/friends/3/among?ids=2,4").header(IdentityHeader.NAME, carol()))
+                .andExpect(status().isOk());
+    }
+}
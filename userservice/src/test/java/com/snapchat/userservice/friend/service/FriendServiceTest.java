@@ -0,0 +1,92 @@
+package com.snapchat.userservice.friend.service;
+
+import com.snapchat.userservice.common.Role;
+import com.snapchat.userservice.friend.dto.FriendshipStatus;
+import com.snapchat.userservice.friend.repository.FriendEdgeRepository;
+import com.snapchat.userservice.friend.repository.FriendRequestRepository;
+import com.snapchat.userservice.user.entity.User;
+import com.snapchat.userservice.user.repository.UserRepository;
+import com.snapchat.userservice.user.service.UserCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@ActiveProfiles("test")
+@Import({FriendService.class, FriendGraphCache.class, UserCache.class, FriendServiceTest.Metrics.class})
+class FriendServiceTest {
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private FriendService friendService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private FriendEdgeRepository friendEdgeRepository;
+    @Autowired
+    private FriendRequestRepository friendRequestRepository;
+
+    private Integer alice;
+    private Integer bob;
+    private Integer carol;
+
+    @BeforeEach
+    void setUp() {
+        alice = userRepository.save(new User(null, "Alice", "A", "alice@test.com", "hash", Role.USER)).getId();
+        bob = userRepository.save(new User(null, "Bob", "B", "bob@test.com", "hash", Role.USER)).getId();
+        carol = userRepository.save(new User(null, "Carol", "C", "carol@test.com", "hash", Role.USER)).getId();
+    }
+
+    @Test
+    void crossedRequestsCreateBothEdges() {
+        assertThat(friendService.sendRequest(alice, bob)).isEqualTo(FriendshipStatus.PENDING);
+        assertThat(friendService.sendRequest(bob, alice)).isEqualTo(FriendshipStatus.FRIENDS);
+
+        assertThat(friendEdgeRepository.findFriendIds(alice)).containsExactly(bob);
+        assertThat(friendEdgeRepository.findFriendIds(bob)).containsExactly(alice);
+        assertThat(friendRequestRepository.count()).isZero();
+    }
+
+    @Test
+    void removedUserLeavesNoEdgeNorRequest() {
+        friendService.sendRequest(alice, bob);
+        friendService.acceptRequest(bob, alice);
+        friendService.sendRequest(alice, carol);
+        friendService.sendRequest(carol, bob);
+        assertThat(friendService.getFriendIds(bob)).containsExactly(alice);
+
+        friendService.removeUser(alice);
+
+        assertThat(friendEdgeRepository.count()).isZero();
+        assertThat(friendService.getFriendIds(bob)).isEmpty();
+        assertThat(friendRequestRepository.findAll()).singleElement()
+                .satisfies(request -> assertThat(request.getRequesterId()).isEqualTo(carol));
+    }
+
+    @Test
+    void friendListIsVisibleToSelfAndFriendsOnly() {
+        friendService.sendRequest(alice, bob);
+        friendService.acceptRequest(bob, alice);
+
+        assertThat(friendService.canSeeFriendsOf(alice, alice)).isTrue();
+        assertThat(friendService.canSeeFriendsOf(bob, alice)).isTrue();
+        assertThat(friendService.canSeeFriendsOf(carol, alice)).isFalse();
+        assertThat(friendService.canSeeFriendsOf(null, alice)).isFalse();
+    }
+}
@@ -0,0 +1,66 @@
+package com.snapchat.userservice.security.service;
+
+import com.snapchat.userservice.security.entity.TokenRevocation;
+import com.snapchat.userservice.security.repository.TokenRevocationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@ActiveProfiles("test")
+// Chaque écriture est commitée comme en production (l'appelant n'ouvre pas de transaction)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TokenRevocationCacheTest {
+
+    @Autowired
+    private TokenRevocationRepository repository;
+
+    private TokenRevocationCache newInstance(Duration ttl) {
+        return new TokenRevocationCache(repository, 1000, ttl);
+    }
+
+    @Test
+    void changeOnOneInstanceIsSeenByAnotherAndAfterRestart() {
+        Date issuedBefore = new Date(System.currentTimeMillis() - 60_000);
+        TokenRevocationCache first = newInstance(Duration.ofMinutes(1));
+        first.markChanged("alice@test.com");
+
+        assertThat(first.isChangedSince("alice@test.com", issuedBefore)).isTrue();
+        // Nouvelle instance (autre nœud ou redémarrage) : la révocation vient de la base
+        assertThat(newInstance(Duration.ofMinutes(1)).isChangedSince("alice@test.com", issuedBefore)).isTrue();
+        assertThat(newInstance(Duration.ofMinutes(1)).isChangedSince("alice@test.com", new Date(System.currentTimeMillis() + 60_000))).isFalse();
+        assertThat(newInstance(Duration.ofMinutes(1)).isChangedSince("bob@test.com", issuedBefore)).isFalse();
+    }
+
+    @Test
+    void cachedAbsenceExpiresAfterTtl() {
+        Date issuedBefore = new Date(System.currentTimeMillis() - 60_000);
+        TokenRevocationCache reader = newInstance(Duration.ZERO);
+        assertThat(reader.isChangedSince("carol@test.com", issuedBefore)).isFalse();
+
+        newInstance(Duration.ofMinutes(1)).markChanged("carol@test.com");
+
+        assertThat(reader.isChangedSince("carol@test.com", issuedBefore)).isTrue();
+    }
+
+    @Test
+    void repeatedChangesUpdateTheRowAndPruneExpiredOnes() {
+        repository.save(new TokenRevocation("old@test.com", System.currentTimeMillis() - (JwtAuthService.JWT_VALIDITY + 60) * 1000));
+        TokenRevocationCache cache = newInstance(Duration.ofMinutes(1));
+
+        cache.markChanged("dave@test.com");
+        long firstChange = repository.findChangedAt("dave@test.com").orElseThrow();
+        cache.markChanged("dave@test.com");
+
+        assertThat(repository.findChangedAt("dave@test.com")).hasValueSatisfying(changed -> assertThat(changed).isGreaterThanOrEqualTo(firstChange));
+        assertThat(repository.findById("old@test.com")).isEmpty();
+    }
+}
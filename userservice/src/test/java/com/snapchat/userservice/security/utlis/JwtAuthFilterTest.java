@@ -0,0 +1,92 @@
+package com.snapchat.userservice.security.utlis;
+
+import com.snapchat.identity.IdentityHeader;
+import com.snapchat.userservice.common.Role;
+import com.snapchat.userservice.security.service.JwtAuthService;
+import com.snapchat.userservice.security.service.TokenRevocationCache;
+import com.snapchat.userservice.user.dto.StatusUser;
+import com.snapchat.userservice.user.entity.User;
+import com.snapchat.userservice.user.service.UserCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtAuthFilterTest {
+
+    private static final String SECRET = "c7d9e7f2ad9c8d6b4a3f1e8d7c5b2a9d6f3e8c1b4a7d5f2e8c9b6a3d1f4e7";
+
+    private JwtAuthService jwtAuthService;
+    private UserDetailsService userDetailsService;
+    private TokenRevocationCache revocationCache;
+    private JwtAuthFilter filter;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtAuthService = new JwtAuthService(SECRET, 100);
+        userDetailsService = mock(UserDetailsService.class);
+        revocationCache = mock(TokenRevocationCache.class);
+        filter = new JwtAuthFilter(jwtAuthService, userDetailsService, revocationCache,
+                new IdentityHeader("test-identity-secret-0123456789abcdef"), mock(UserCache.class));
+        user = new User(1, "Bob", "B", "bob@test.com", "hash", Role.USER);
+        when(userDetailsService.loadUserByUsername("bob@test.com")).thenReturn(user);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockHttpServletResponse filterWithToken(MockFilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/friends/1");
+        request.addHeader("Authorization", "Bearer " + jwtAuthService.generateToken(user));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    void revokedTokenOfBannedUserIsRejected() throws Exception {
+        user.setStatus(StatusUser.BANNED);
+        when(revocationCache.isChangedSince(eq("bob@test.com"), any())).thenReturn(true);
+        MockFilterChain chain = new MockFilterChain();
+
+        MockHttpServletResponse response = filterWithToken(chain);
+
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(chain.getRequest()).isNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void revokedTokenOfActiveUserIsReloadedAndAccepted() throws Exception {
+        when(revocationCache.isChangedSince(eq("bob@test.com"), any())).thenReturn(true);
+        MockFilterChain chain = new MockFilterChain();
+
+        MockHttpServletResponse response = filterWithToken(chain);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isSameAs(user);
+    }
+
+    @Test
+    void userDetailsReflectStatus() {
+        assertThat(user.isEnabled()).isTrue();
+        user.setStatus(StatusUser.INACTIVE);
+        assertThat(user.isEnabled()).isFalse();
+        user.setStatus(StatusUser.BANNED);
+        assertThat(user.isAccountNonLocked()).isFalse();
+    }
+}
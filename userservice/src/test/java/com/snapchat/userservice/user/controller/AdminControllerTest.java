@@ -0,0 +1,80 @@
+package com.snapchat.userservice.user.controller;
+
+import com.snapchat.identity.IdentityHeader;
+import com.snapchat.userservice.security.config.SecurityConfiguration;
+import com.snapchat.userservice.security.service.JwtAuthService;
+import com.snapchat.userservice.security.service.TokenRevocationCache;
+import com.snapchat.userservice.user.service.AdminService;
+import com.snapchat.userservice.user.service.UserCache;
+import com.snapchat.userservice.user.service.UserExportService;
+import com.snapchat.userservice.user.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(AdminController.class)
+@Import({SecurityConfiguration.class, AdminControllerTest.Identity.class})
+class AdminControllerTest {
+
+    static final IdentityHeader IDENTITY_HEADER = new IdentityHeader("test-identity-secret-0123456789abcdef");
+
+    @TestConfiguration
+    static class Identity {
+        @Bean
+        IdentityHeader identityHeader() {
+            return IDENTITY_HEADER;
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private UserService userService;
+    @MockitoBean
+    private AdminService adminService;
+    @MockitoBean
+    private UserExportService userExportService;
+    @MockitoBean
+    private JwtAuthService jwtAuthService;
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+    @MockitoBean
+    private TokenRevocationCache revocationCache;
+    @MockitoBean
+    private UserCache userCache;
+
+    static String identity(String email, String role) {
+        long now = System.currentTimeMillis() / 1000;
+        return IDENTITY_HEADER.sign(new IdentityHeader.Identity("1", email, role, now, now + 60));
+    }
+
+    @Test
+    void exportIsForbiddenToNonAdmins() throws Exception {
+        mockMvc.perform(get("/api/admin/users/export")
+                        .header(IdentityHeader.NAME, identity("user@test.com", "ROLE_USER")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void exportIsForbiddenWithoutIdentity() throws Exception {
+        mockMvc.perform(get("/api/admin/users/export"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void exportIsServedToAdmins() throws Exception {
+        mockMvc.perform(get("/api/admin/users/export")
+                        .header(IdentityHeader.NAME, identity("admin@test.com", "ROLE_ADMIN")))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,64 @@
+package com.snapchat.userservice.user.repository;
+
+import com.snapchat.userservice.common.Role;
+import com.snapchat.userservice.user.dto.StatusUser;
+import com.snapchat.userservice.user.dto.UserSummary;
+import com.snapchat.userservice.user.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@ActiveProfiles("test")
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 5; i++) {
+            userRepository.save(new User(null, "First" + i, "Last" + i, "user" + i + "@test.com", "hash", Role.USER));
+        }
+        User admin = new User(null, "Admin", "Root", "admin@test.com", "hash", Role.ADMIN);
+        admin.setStatus(StatusUser.BANNED);
+        userRepository.save(admin);
+    }
+
+    @Test
+    void searchSummariesAppliesOptionalFilters() {
+        Page<UserSummary> banned = userRepository.searchSummaries(StatusUser.BANNED, null, null, PageRequest.of(0, 10));
+        assertThat(banned.getContent()).extracting(UserSummary::email).containsExactly("admin@test.com");
+
+        Page<UserSummary> byPrefix = userRepository.searchSummaries(null, Role.USER, "user1%", PageRequest.of(0, 10));
+        assertThat(byPrefix.getContent()).extracting(UserSummary::email).containsExactly("user1@test.com");
+    }
+
+    @Test
+    void searchSummariesPagesWithStableOrder() {
+        PageRequest first = PageRequest.of(0, 4, Sort.by("id"));
+        Page<UserSummary> page = userRepository.searchSummaries(null, null, null, first);
+        Page<UserSummary> last = userRepository.searchSummaries(null, null, null, first.next());
+
+        assertThat(page.getTotalElements()).isEqualTo(6);
+        assertThat(page.getContent()).hasSize(4);
+        assertThat(last.getContent()).hasSize(2);
+        assertThat(last.getContent().get(0).id()).isGreaterThan(page.getContent().get(3).id());
+    }
+
+    @Test
+    void findAllSummariesReadsEveryUser() {
+        List<UserSummary> all = userRepository.findAllSummaries();
+        assertThat(all).hasSize(6);
+        assertThat(all).allSatisfy(summary -> assertThat(summary.status()).isNotNull());
+    }
+}
@@ -0,0 +1,69 @@
+package com.snapchat.userservice.user.service;
+
+import com.snapchat.userservice.common.Role;
+import com.snapchat.userservice.user.entity.User;
+import com.snapchat.userservice.user.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserCacheTest {
+
+    private UserRepository userRepository;
+    private UserCache userCache;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userCache = new UserCache(userRepository, 100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        User alice = new User(1, "Alice", "Martin", "alice@test.com", "hash", Role.USER);
+        when(userRepository.findById(1)).thenReturn(Optional.of(alice));
+        when(userRepository.findByEmail("alice@test.com")).thenReturn(Optional.of(alice));
+        when(userRepository.findAllById(anyList())).thenReturn(List.of(alice));
+    }
+
+    @Test
+    void readsAreServedFromCacheAsIndependentCopies() {
+        User first = userCache.findById(1).orElseThrow();
+        first.setFirstName("Mallory");
+        first.setRoles(Role.ADMIN);
+
+        User second = userCache.findById(1).orElseThrow();
+        User byEmail = userCache.findByEmail("alice@test.com").orElseThrow();
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getFirstName()).isEqualTo("Alice");
+        assertThat(second.getRoles()).isEqualTo(Role.USER);
+        assertThat(byEmail.getFirstName()).isEqualTo("Alice");
+        verify(userRepository, times(1)).findById(1);
+    }
+
+    @Test
+    void cachedCopyIsDetachedFromTheLoadedEntity() {
+        User loaded = userRepository.findById(1).orElseThrow();
+        userCache.findById(1);
+        loaded.setEmail("changed@test.com");
+
+        assertThat(userCache.findById(1).orElseThrow().getEmail()).isEqualTo("alice@test.com");
+    }
+
+    @Test
+    void batchReadsReturnCopiesToo() {
+        Map<Integer, User> users = userCache.findAllById(List.of(1));
+        users.get(1).setLastName("Changed");
+
+        assertThat(userCache.findAllById(List.of(1)).get(1).getLastName()).isEqualTo("Martin");
+    }
+}